@@ -0,0 +1,124 @@
+package com.saas.ecommerce;
+
+import com.saas.ecommerce.model.entity.UserSession;
+import com.saas.ecommerce.repository.UserSessionRepository;
+import com.saas.ecommerce.service.JwtService;
+import com.saas.ecommerce.service.KeyGeneratorService;
+import com.saas.ecommerce.session.CachingSessionEpochStore;
+import com.saas.ecommerce.session.LocalSessionInvalidationBus;
+import com.saas.ecommerce.session.RedisSessionStore;
+import com.saas.ecommerce.session.SessionEpochStore;
+import com.saas.ecommerce.session.SessionManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wiring for benchmarks without a Spring context, MySQL or Redis. The stand-ins are map-backed so
+ * numbers reflect our code, not the network.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String SECRET = "4f8i7YJc0m5Vq3j2s9a1d6f8k2p4r6t8w0y2u4x6z8A=";
+    public static final Duration SESSION_TTL = Duration.ofDays(30);
+
+    private BenchmarkFixtures() {}
+
+    public static KeyGeneratorService keyGeneratorService() {
+        KeyGeneratorService keys = new KeyGeneratorService(null, event -> {});
+        ReflectionTestUtils.setField(keys, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(keys, "oldKeyTtl", 86400L);
+        keys.init();
+        return keys;
+    }
+
+    public static JwtService jwtService(long claimsCacheSize) {
+        JwtService jwt = new JwtService();
+        ReflectionTestUtils.setField(jwt, "keyGeneratorService", keyGeneratorService());
+        ReflectionTestUtils.setField(jwt, "accessExpiry", 3600L);
+        ReflectionTestUtils.setField(jwt, "claimsCacheMaxSize", claimsCacheSize);
+        ReflectionTestUtils.invokeMethod(jwt, "init");
+        return jwt;
+    }
+
+    /** StringRedisTemplate whose value ops and deletes hit a local map. */
+    public static StringRedisTemplate inMemoryRedis() {
+        Map<String, String> data = new ConcurrentHashMap<>();
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> ops = (ValueOperations<String, String>) Proxy.newProxyInstance(
+                ValueOperations.class.getClassLoader(),
+                new Class<?>[]{ValueOperations.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "get" -> data.get((String) args[0]);
+                    case "set" -> data.put((String) args[0], (String) args[1]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new StringRedisTemplate() {
+            @Override
+            public ValueOperations<String, String> opsForValue() {
+                return ops;
+            }
+
+            @Override
+            public Boolean delete(String key) {
+                return data.remove(key) != null;
+            }
+        };
+    }
+
+    /** Epoch store as wired in production (local primitive map + bus) over a map-backed shared store. */
+    public static SessionEpochStore inMemoryEpochStore() {
+        Map<Long, Long> shared = new ConcurrentHashMap<>();
+        SessionEpochStore backend = new SessionEpochStore() {
+            @Override
+            public long current(long principalKey) {
+                return shared.getOrDefault(principalKey, NONE);
+            }
+
+            @Override
+            public long advance(long principalKey, Duration ttl) {
+                return shared.merge(principalKey, 1L, Long::sum);
+            }
+        };
+        return new CachingSessionEpochStore(backend, new LocalSessionInvalidationBus(), 1_000_000, Duration.ofMinutes(1));
+    }
+
+    public static SessionManager sessionManager(String binding) {
+        return new SessionManager(new RedisSessionStore(inMemoryRedis()), inMemoryEpochStore(), null, binding,
+                SESSION_TTL.toDays(), SESSION_TTL.toSeconds());
+    }
+
+    /** UserSessionRepository covering the calls DbSessionStore makes. */
+    public static UserSessionRepository inMemorySessionRepository() {
+        Map<String, UserSession> rows = new ConcurrentHashMap<>();
+        return (UserSessionRepository) Proxy.newProxyInstance(
+                UserSessionRepository.class.getClassLoader(),
+                new Class<?>[]{UserSessionRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername" -> Optional.ofNullable(rows.get((String) args[0]));
+                    case "updateSid" -> {
+                        UserSession us = rows.get((String) args[0]);
+                        if (us == null) yield 0;
+                        us.setSessionId((String) args[1]);
+                        us.setUpdatedAt((java.time.Instant) args[2]);
+                        yield 1;
+                    }
+                    case "save" -> {
+                        UserSession us = (UserSession) args[0];
+                        rows.put(us.getUsername(), us);
+                        yield us;
+                    }
+                    case "delete" -> rows.remove(((UserSession) args[0]).getUsername());
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserSessionRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,38 @@
+package com.saas.ecommerce.config;
+
+import com.saas.ecommerce.utils.Constant;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Authority expansion done on every authenticated request. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoleHierarchyBenchmark {
+
+    @Param({Constant.ROLE_SUPER_ADMIN, Constant.ROLE_USER})
+    public String role;
+
+    private RoleHierarchy roleHierarchy;
+    private List<GrantedAuthority> authorities;
+
+    @Setup
+    public void setUp() {
+        roleHierarchy = SecurityConfig.roleHierarchy();
+        authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getReachableGrantedAuthorities() {
+        return roleHierarchy.getReachableGrantedAuthorities(authorities);
+    }
+}
@@ -0,0 +1,55 @@
+package com.saas.ecommerce.config;
+
+import com.saas.ecommerce.BenchmarkFixtures;
+import com.saas.ecommerce.service.JwtService;
+import com.saas.ecommerce.session.PrincipalKeys;
+import com.saas.ecommerce.session.SessionBinding;
+import com.saas.ecommerce.session.SessionManager;
+import com.saas.ecommerce.session.SessionPolicy;
+import com.saas.ecommerce.utils.Constant;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/** Full per-request auth overhead for an authenticated call, with session enforcement on (sid vs epoch binding). */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenValidationFilterBenchmark {
+
+    @Param({"sid", "epoch"})
+    public String binding;
+
+    private TokenValidationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = BenchmarkFixtures.jwtService(10_000);
+        SessionManager sessions = BenchmarkFixtures.sessionManager(binding);
+        SessionBinding session = sessions.start("user@example.com", 42L, PrincipalKeys.user(7L), jwtService.generateRefreshToken());
+        filter = new TokenValidationFilter(jwtService, sessions, new SessionPolicy(), SecurityConfig.roleHierarchy());
+
+        String token = jwtService.generateAccessToken("user@example.com", 42L, 7L, Constant.ROLE_ADMIN, session);
+        request = new MockHttpServletRequest("GET", "/api/user/users");
+        request.setServletPath("/api/user/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public int doFilterInternal() throws Exception {
+        filter.doFilterInternal(request, response, chain);
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+}
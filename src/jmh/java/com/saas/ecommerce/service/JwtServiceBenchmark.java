@@ -0,0 +1,48 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.BenchmarkFixtures;
+import com.saas.ecommerce.utils.Constant;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue/verify cost. {@code claimsCacheSize=0} measures a full signature check + parse on
+ * every call; the default size measures the steady state where a client reuses its token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    @Param({"0", "10000"})
+    public long claimsCacheSize;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(claimsCacheSize);
+        token = jwtService.generateAccessToken("user@example.com", 42L, 7L, Constant.ROLE_USER, "sid-1");
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken("user@example.com", 42L, 7L, Constant.ROLE_USER, "sid-1");
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token);
+    }
+}
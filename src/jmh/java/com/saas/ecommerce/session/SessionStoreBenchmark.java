@@ -0,0 +1,44 @@
+package com.saas.ecommerce.session;
+
+import com.saas.ecommerce.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/** Per-request sid lookup and per-login sid write for each SessionStore, over in-memory backends. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionStoreBenchmark {
+
+    @Param({"redis", "db", "tiered"})
+    public String store;
+
+    private SessionStore sessionStore;
+
+    @Setup
+    public void setUp() {
+        sessionStore = switch (store) {
+            case "redis" -> new RedisSessionStore(BenchmarkFixtures.inMemoryRedis());
+            case "db" -> new DbSessionStore(BenchmarkFixtures.inMemorySessionRepository(), BenchmarkFixtures.SESSION_TTL);
+            case "tiered" -> new NearCacheSessionStore(new RedisSessionStore(BenchmarkFixtures.inMemoryRedis()),
+                    new LocalSessionInvalidationBus(), 100_000, Duration.ofSeconds(60));
+            default -> throw new IllegalArgumentException(store);
+        };
+        sessionStore.setSid("user@example.com", "sid-1", BenchmarkFixtures.SESSION_TTL);
+    }
+
+    @Benchmark
+    public String getSid() {
+        return sessionStore.getSid("user@example.com");
+    }
+
+    @Benchmark
+    public void setSid() {
+        sessionStore.setSid("user@example.com", "sid-1", BenchmarkFixtures.SESSION_TTL);
+    }
+}
@@ -1,5 +1,8 @@
 package com.saas.ecommerce.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,8 +10,45 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class CryptoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CryptoConfig.class);
+
+    /**
+     * BCrypt cost: fixed via {@code app.password-hashing.strength}, or (0) the highest cost in
+     * [min, max] whose single hash on this machine stays within the latency budget. The floor is never
+     * lowered to meet the budget: a slow host keeps {@code min-strength} and logs a warning.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(@Value("${app.password-hashing.strength:0}") int strength,
+                                           @Value("${app.password-hashing.min-strength:12}") int minStrength,
+                                           @Value("${app.password-hashing.max-strength:14}") int maxStrength,
+                                           @Value("${app.password-hashing.latency-budget-ms:250}") long budgetMs) {
+        if (strength > 0 && strength < minStrength) {
+            throw new IllegalStateException("app.password-hashing.strength=" + strength
+                    + " is below app.password-hashing.min-strength=" + minStrength);
+        }
+        int chosen = strength > 0 ? strength : calibrate(minStrength, maxStrength, budgetMs);
+        logger.info("BCrypt strength {}{}", chosen, strength > 0 ? " (configured)" : " (calibrated to " + budgetMs + "ms)");
+        return new BCryptPasswordEncoder(chosen);
+    }
+
+    static int calibrate(int minStrength, int maxStrength, long budgetMs) {
+        new BCryptPasswordEncoder(minStrength).encode("warm-up");
+        int chosen = minStrength;
+        for (int s = minStrength; s <= maxStrength; s++) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(s).encode("calibration");
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            if (ms > budgetMs) {
+                if (s == minStrength) {
+                    logger.warn("BCrypt at the minimum strength {} took {}ms, over the {}ms budget; keeping {} "
+                            + "(add hashing threads or raise the budget rather than lowering the floor)",
+                            minStrength, ms, budgetMs, minStrength);
+                }
+                break;
+            }
+            chosen = s;
+        }
+        return chosen;
     }
 }
@@ -0,0 +1,40 @@
+package com.saas.ecommerce.config;
+
+import com.saas.ecommerce.tenant.TenantBulkheadDataSource;
+import com.saas.ecommerce.tenant.TenantBulkheads;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class JpaConfig {
+
+    /** Replaces Boot's JpaTransactionManager so every transaction carries the caller's tenant filter. */
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory emf,
+                                                         ObjectProvider<TransactionManagerCustomizers> customizers) {
+        TenantAwareJpaTransactionManager tm = new TenantAwareJpaTransactionManager(emf);
+        customizers.ifAvailable(c -> c.customize(tm));
+        return tm;
+    }
+
+    /** Wraps the pool so each checkout made under a tenant counts against that tenant's connection share. */
+    @Bean
+    static BeanPostProcessor tenantBulkheadDataSourcePostProcessor(ObjectProvider<TenantBulkheads> bulkheads) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && "dataSource".equals(beanName)) {
+                    return new TenantBulkheadDataSource(ds, bulkheads.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.saas.ecommerce.config;
+
+import com.saas.ecommerce.context.RequestContext;
+import com.saas.ecommerce.context.RequestIdFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+public class RequestContextConfig {
+
+    /** Ahead of the security chain so every log line and filter of the request sees its id. */
+    @Bean
+    public FilterRegistrationBean<RequestIdFilter> requestIdFilter() {
+        FilterRegistrationBean<RequestIdFilter> registration = new FilterRegistrationBean<>(new RequestIdFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /** Applied by Boot to the @Async executor (platform or virtual threads): tasks run under the submitter's context. */
+    @Bean
+    public TaskDecorator requestContextTaskDecorator() {
+        return RequestContext::wrap;
+    }
+}
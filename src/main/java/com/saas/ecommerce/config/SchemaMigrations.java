@@ -0,0 +1,163 @@
+package com.saas.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One-time data migrations that ddl-auto cannot express. Each runs once per database and is then
+ * recorded in {@code schema_migrations}, so a boot after that costs one indexed read. They run after
+ * Hibernate's schema update, under a MySQL named lock so nodes starting together apply a step once.
+ * A step guarded by a column is skipped on databases that never had that column (fresh installs).
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrations implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+    private static final String LOCK_NAME = "schema_migrations";
+    private static final int LOCK_WAIT_SECONDS = 300;
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            // refresh_tokens: raw token -> SHA-256 digest (token_hash BINARY(32)); the legacy column is emptied
+            new Migration("010-refresh-token-digests", List.of(
+                    Step.ifColumn("refresh_tokens", "token", "ALTER TABLE refresh_tokens MODIFY token VARCHAR(255) NULL"),
+                    Step.ifColumn("refresh_tokens", "token",
+                            "UPDATE refresh_tokens SET token_hash = UNHEX(SHA2(token, 256)) WHERE token IS NOT NULL AND token_hash IS NULL"),
+                    Step.ifColumn("refresh_tokens", "token", "UPDATE refresh_tokens SET token = NULL WHERE token IS NOT NULL"))),
+            // identity_directory: one login row per principal (kind: 1 client, 2 user, 3 super admin; tenant 0 = platform).
+            // Later writes go through IdentityDirectoryService alongside the principal write.
+            new Migration("013-identity-directory-backfill", List.of(
+                    Step.always("INSERT INTO identity_directory (tenant_id, email, kind, principal_id, client_id, roles, password_hash, active) "
+                            + "SELECT 0, email, 3, id, NULL, roles, password, TRUE FROM super_admins "
+                            + "ON DUPLICATE KEY UPDATE email = VALUES(email), roles = VALUES(roles), password_hash = VALUES(password_hash)"),
+                    Step.always("INSERT INTO identity_directory (tenant_id, email, kind, principal_id, client_id, roles, password_hash, active) "
+                            + "SELECT 0, email, 1, id, id, roles, password, is_active FROM clients "
+                            + "ON DUPLICATE KEY UPDATE email = VALUES(email), roles = VALUES(roles), password_hash = VALUES(password_hash), "
+                            + "active = VALUES(active)"),
+                    Step.always("INSERT INTO identity_directory (tenant_id, email, kind, principal_id, client_id, roles, password_hash, active) "
+                            + "SELECT client_id, email, 2, id, client_id, roles, password, is_active FROM users WHERE client_id IS NOT NULL "
+                            + "ON DUPLICATE KEY UPDATE tenant_id = VALUES(tenant_id), email = VALUES(email), client_id = VALUES(client_id), "
+                            + "roles = VALUES(roles), password_hash = VALUES(password_hash), active = VALUES(active)"),
+                    Step.always("DELETE d FROM identity_directory d LEFT JOIN super_admins s ON s.id = d.principal_id "
+                            + "WHERE d.kind = 3 AND s.id IS NULL"),
+                    Step.always("DELETE d FROM identity_directory d LEFT JOIN clients c ON c.id = d.principal_id "
+                            + "WHERE d.kind = 1 AND c.id IS NULL"),
+                    Step.always("DELETE d FROM identity_directory d LEFT JOIN users u ON u.id = d.principal_id "
+                            + "WHERE d.kind = 2 AND u.id IS NULL"))),
+            // principal rows no longer carry tokens; clear the copies left in the unmapped columns, which
+            // fresh databases never get (drop the columns once every environment has run this)
+            new Migration("014-clear-principal-tokens", List.of(
+                    Step.ifColumn("super_admins", "access_token", "UPDATE super_admins SET access_token = NULL WHERE access_token IS NOT NULL"),
+                    Step.ifColumn("super_admins", "token", "UPDATE super_admins SET token = NULL WHERE token IS NOT NULL"),
+                    Step.ifColumn("clients", "access_token", "UPDATE clients SET access_token = NULL WHERE access_token IS NOT NULL"),
+                    Step.ifColumn("clients", "token", "UPDATE clients SET token = NULL WHERE token IS NOT NULL"),
+                    Step.ifColumn("users", "access_token", "UPDATE users SET access_token = NULL WHERE access_token IS NOT NULL"),
+                    Step.ifColumn("users", "token", "UPDATE users SET token = NULL WHERE token IS NOT NULL")))
+    );
+
+    private final JdbcTemplate jdbc;
+
+    public SchemaMigrations(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS schema_migrations ("
+                + "id VARCHAR(100) NOT NULL PRIMARY KEY, "
+                + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        jdbc.execute((ConnectionCallback<Void>) con -> {
+            if (!lock(con)) throw new IllegalStateException("Timed out waiting for lock " + LOCK_NAME);
+            try {
+                Set<String> applied = applied(con);
+                for (Migration m : MIGRATIONS) {
+                    if (!applied.contains(m.id())) apply(con, m);
+                }
+            } finally {
+                unlock(con);
+            }
+            return null;
+        });
+    }
+
+    private void apply(Connection con, Migration m) throws SQLException {
+        long started = System.nanoTime();
+        int ran = 0;
+        try (Statement st = con.createStatement()) {
+            for (Step step : m.steps()) {
+                if (step.table() != null && !columnExists(con, step.table(), step.column())) continue;
+                st.execute(step.sql());
+                ran++;
+            }
+        }
+        try (PreparedStatement ps = con.prepareStatement("INSERT INTO schema_migrations (id) VALUES (?)")) {
+            ps.setString(1, m.id());
+            ps.executeUpdate();
+        }
+        logger.info("Applied migration {} ({} of {} steps) in {} ms", m.id(), ran, m.steps().size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static Set<String> applied(Connection con) throws SQLException {
+        Set<String> ids = new HashSet<>();
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT id FROM schema_migrations")) {
+            while (rs.next()) ids.add(rs.getString(1));
+        }
+        return ids;
+    }
+
+    private static boolean columnExists(Connection con, String table, String column) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM information_schema.COLUMNS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) > 0;
+            }
+        }
+    }
+
+    private static boolean lock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_WAIT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void unlock(Connection con) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.execute();
+        }
+    }
+
+    private record Migration(String id, List<Step> steps) {}
+
+    /** A statement, optionally run only if {@code table.column} exists. */
+    private record Step(String table, String column, String sql) {
+        static Step always(String sql) {
+            return new Step(null, null, sql);
+        }
+
+        static Step ifColumn(String table, String column, String sql) {
+            return new Step(table, column, sql);
+        }
+    }
+}
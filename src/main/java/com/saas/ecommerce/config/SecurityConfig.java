@@ -1,9 +1,16 @@
 package com.saas.ecommerce.config;
 
+import com.saas.ecommerce.ratelimit.IpRateLimitFilter;
+import com.saas.ecommerce.ratelimit.RateLimitFilter;
+import com.saas.ecommerce.ratelimit.RateLimiterService;
 import com.saas.ecommerce.service.JwtService;
 import com.saas.ecommerce.session.SessionPolicy;
-import com.saas.ecommerce.session.SessionStore;
+import com.saas.ecommerce.session.SessionManager;
+import com.saas.ecommerce.tenant.TenantBulkheadFilter;
+import com.saas.ecommerce.tenant.TenantBulkheads;
 import com.saas.ecommerce.utils.Constant;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
@@ -19,6 +26,8 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.List;
+
 import static com.saas.ecommerce.utils.Constant.PUBLIC_URLS;
 
 @Configuration
@@ -29,20 +38,27 @@ public class SecurityConfig {
     @Bean
     public TokenValidationFilter tokenValidationFilter(
             JwtService jwtService,
-            SessionStore sessionStore,
+            SessionManager sessionManager,
             SessionPolicy sessionPolicy,
             RoleHierarchy roleHierarchy) {
-        return new TokenValidationFilter(jwtService, sessionStore, sessionPolicy, roleHierarchy);
+        return new TokenValidationFilter(jwtService, sessionManager, sessionPolicy, roleHierarchy);
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
-                                                   TokenValidationFilter tokenValidationFilter) throws Exception {
+                                                   TokenValidationFilter tokenValidationFilter,
+                                                   RateLimiterService rateLimiter,
+                                                   TenantBulkheads bulkheads,
+                                                   @Value("${app.rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+                                                   @Value("${app.rate-limit.trusted-proxies:}") List<String> trustedProxies) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(Customizer.withDefaults())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // re-dispatch of an already authorized async request (streaming exports);
+                        // the token filter does not run again on it
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(PUBLIC_URLS).permitAll()
                         .requestMatchers("/api/super-admin/**").hasRole(Constant.ROLE_SUPER_ADMIN)
                         .requestMatchers("/api/client/**").hasRole(Constant.ROLE_CLIENT)
@@ -50,7 +66,14 @@ public class SecurityConfig {
                         .requestMatchers("/api/user/**").hasRole(Constant.ROLE_USER)
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(tokenValidationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(tokenValidationFilter, UsernamePasswordAuthenticationFilter.class)
+                // not beans: Boot would also register them as servlet filters, outside the security chain.
+                // Per-address limits come before token validation so bad tokens cannot bypass them;
+                // tenant and principal limits need the authenticated request.
+                .addFilterBefore(new IpRateLimitFilter(rateLimiter, trustForwardedFor, trustedProxies), TokenValidationFilter.class)
+                .addFilterAfter(new RateLimitFilter(rateLimiter), TokenValidationFilter.class)
+                // after rate limiting, so shed requests never take a concurrency permit
+                .addFilterAfter(new TenantBulkheadFilter(bulkheads), RateLimitFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,41 @@
+package com.saas.ecommerce.config;
+
+import com.saas.ecommerce.utils.TenantContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Turns the Hibernate {@code tenantFilter} on for every transaction started while
+ * {@link TenantContext} holds a tenant, and off otherwise (super admins, public endpoints, background
+ * jobs). Repository calls always run in a transaction, so tenant-owned entities are scoped without
+ * each query repeating {@code client_id = ?}. Like every Hibernate filter it applies to queries,
+ * not to {@code find}/{@code getReferenceById} by primary key.
+ */
+public class TenantAwareJpaTransactionManager extends JpaTransactionManager {
+
+    public static final String TENANT_FILTER = "tenantFilter";
+    public static final String TENANT_PARAM = "currentTenant";
+
+    public TenantAwareJpaTransactionManager(EntityManagerFactory emf) {
+        super(emf);
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder == null) return;
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        Long tenant = TenantContext.getCurrentTenant();
+        // an open-in-view EntityManager outlives the transaction, so always reset
+        if (tenant != null) {
+            session.enableFilter(TENANT_FILTER).setParameter(TENANT_PARAM, tenant);
+        } else {
+            session.disableFilter(TENANT_FILTER);
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.saas.ecommerce.config;
 
+import com.saas.ecommerce.context.RequestContext;
 import com.saas.ecommerce.security.AuthPrincipal;
 import com.saas.ecommerce.service.JwtService;
 import com.saas.ecommerce.session.SessionPolicy;
-import com.saas.ecommerce.session.SessionStore;
-import com.saas.ecommerce.utils.TenantContext;
+import com.saas.ecommerce.session.SessionManager;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -34,18 +34,18 @@ public class TokenValidationFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(TokenValidationFilter.class);
     private final JwtService jwtService;
-    private final SessionStore sessionStore;
+    private final SessionManager sessionManager;
     private final SessionPolicy sessionPolicy;
     private final List<PathPattern> publicPatterns;
     private final PathPatternParser pathPatternParser;
     private final RoleHierarchy roleHierarchy;
 
     public TokenValidationFilter(JwtService jwtService,
-                                 SessionStore sessionStore,
+                                 SessionManager sessionManager,
                                  SessionPolicy sessionPolicy,
                                  RoleHierarchy roleHierarchy) {
         this.jwtService = jwtService;
-        this.sessionStore = sessionStore;
+        this.sessionManager = sessionManager;
         this.sessionPolicy = sessionPolicy;
         this.pathPatternParser = new PathPatternParser();
         this.roleHierarchy = roleHierarchy;
@@ -76,11 +76,7 @@ public class TokenValidationFilter extends OncePerRequestFilter {
 
         String token = header.substring(7);
         try {
-            if (!jwtService.isTokenValid(token)) {
-                sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
-                return;
-            }
-
+            // verifies signature/expiry once and serves repeat tokens from the claims cache
             Claims claims = jwtService.extractAllClaims(token);
 
             Object rolesClaim = claims.get("roles"); // "ADMIN,USER" or a list
@@ -99,16 +95,17 @@ public class TokenValidationFilter extends OncePerRequestFilter {
 
             // single-active-session
             if (sessionPolicy.enforceFor(clientId, username)) {
-                String expectedSid = sessionStore.getSid(username);
-                if (expectedSid == null || tokenSid == null || !tokenSid.equals(expectedSid)) {
+                Long principalKey = claims.get("pk", Long.class);
+                Long epoch = claims.get("epoch", Long.class);
+                boolean current = principalKey != null && epoch != null
+                        ? sessionManager.isCurrent(principalKey, epoch)
+                        : sessionManager.isCurrent(username, tokenSid); // token issued before epochs
+                if (!current) {
                     sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Session expired or logged in elsewhere");
                     return;
                 }
             }
 
-            // Request-scoped context (for logs/metrics only)
-            TenantContext.setCurrentTenant(isSuper ? null : clientId);
-
             // Build ROLE_* authorities and expand with hierarchy
             var baseAuths = roleNames.stream()
                     .map(r -> r.startsWith("ROLE_") ? r : "ROLE_" + r)
@@ -128,11 +125,16 @@ public class TokenValidationFilter extends OncePerRequestFilter {
             var auth = new UsernamePasswordAuthenticationToken(principal, null, expanded);
             SecurityContextHolder.getContext().setAuthentication(auth);
 
-            filterChain.doFilter(request, response);
+            // tenant + principal for the rest of the request, including tasks it hands off
+            RequestContext outer = RequestContext.current();
+            RequestContext ctx = (outer != null ? outer : RequestContext.newRequest(null))
+                    .withTenant(isSuper ? null : clientId)
+                    .withPrincipal(principal);
+            try (RequestContext.Scope ignored = ctx.open()) {
+                filterChain.doFilter(request, response);
+            }
         } catch (JwtException e) {
             sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired token");
-        } finally {
-            TenantContext.clear();
         }
     }
 
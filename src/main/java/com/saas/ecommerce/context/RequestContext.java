@@ -0,0 +1,105 @@
+package com.saas.ecommerce.context;
+
+import com.saas.ecommerce.security.AuthPrincipal;
+import org.slf4j.MDC;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Immutable per-request context (request id, tenant, principal) with {@code ScopedValue} semantics:
+ * a context is only ever visible inside {@link #run}/{@link #call}/{@link #open}, nested bindings shadow the outer
+ * one and are undone on exit, and work handed to another thread sees it only if the task was
+ * {@link #wrap wrapped} at submission. Nothing is left behind on a pooled or carrier thread.
+ *
+ * <p>{@code java.lang.ScopedValue} is still a preview API on Java 21, so the binding is kept in a
+ * private thread-local that is set and restored strictly around the bound call; swapping in
+ * {@code ScopedValue.where(...)} on a JDK where it is final changes nothing for callers.
+ */
+public record RequestContext(String requestId, Long tenantId, AuthPrincipal principal) {
+
+    public static final String MDC_REQUEST_ID = "requestId";
+    public static final String MDC_TENANT = "tenantId";
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    @FunctionalInterface
+    public interface ScopedRunnable<X extends Throwable> {
+        void run() throws X;
+    }
+
+    /** An open binding; closing it restores whatever was bound before. Use only in try-with-resources. */
+    public static final class Scope implements AutoCloseable {
+        private final RequestContext previous;
+
+        private Scope(RequestContext previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            bind(previous);
+        }
+    }
+
+    public static RequestContext newRequest(String requestId) {
+        return new RequestContext(requestId != null ? requestId : UUID.randomUUID().toString(), null, null);
+    }
+
+    /** The context bound to this thread, or null outside a request (and in unwrapped tasks). */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    public RequestContext withTenant(Long tenantId) {
+        return new RequestContext(requestId, tenantId, principal);
+    }
+
+    public RequestContext withPrincipal(AuthPrincipal principal) {
+        return new RequestContext(requestId, tenantId, principal);
+    }
+
+    /** Binds this context until the returned scope is closed (for callers that throw several checked types). */
+    public Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        bind(this);
+        return scope;
+    }
+
+    /** Runs {@code op} with this context bound; the previous binding (if any) is restored afterwards. */
+    public <X extends Throwable> void run(ScopedRunnable<X> op) throws X {
+        try (Scope ignored = open()) {
+            op.run();
+        }
+    }
+
+    public <V> V call(Callable<V> op) throws Exception {
+        try (Scope ignored = open()) {
+            return op.call();
+        }
+    }
+
+    /** Captures the caller's context so {@code task} runs under it on whichever thread executes it. */
+    public static Runnable wrap(Runnable task) {
+        RequestContext captured = CURRENT.get();
+        return captured == null ? task : () -> captured.run(task::run);
+    }
+
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        RequestContext captured = CURRENT.get();
+        return captured == null ? task : () -> captured.call(task);
+    }
+
+    private static void bind(RequestContext ctx) {
+        if (ctx == null) {
+            CURRENT.remove();
+            MDC.remove(MDC_REQUEST_ID);
+            MDC.remove(MDC_TENANT);
+            return;
+        }
+        CURRENT.set(ctx);
+        MDC.put(MDC_REQUEST_ID, ctx.requestId);
+        if (ctx.tenantId != null) MDC.put(MDC_TENANT, ctx.tenantId.toString());
+        else MDC.remove(MDC_TENANT);
+    }
+}
@@ -0,0 +1,32 @@
+package com.saas.ecommerce.context;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Outermost filter: binds a fresh {@link RequestContext} for the request, taking the caller's
+ * {@code X-Request-Id} when it looks sane and echoing the id back on the response.
+ */
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9._:-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String incoming = request.getHeader(HEADER);
+        RequestContext ctx = RequestContext.newRequest(
+                incoming != null && SAFE_ID.matcher(incoming).matches() ? incoming : null);
+        response.setHeader(HEADER, ctx.requestId());
+        try (RequestContext.Scope ignored = ctx.open()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package com.saas.ecommerce.controller;
 
+import com.saas.ecommerce.model.dto.AuthLoginDto;
+import com.saas.ecommerce.model.dto.AuthLoginResponse;
 import com.saas.ecommerce.model.dto.TokenResponse;
+import com.saas.ecommerce.service.AuthService;
 import com.saas.ecommerce.service.RefreshTokenService;
 import com.saas.ecommerce.utils.HandleApiResponse;
+import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import com.saas.ecommerce.utils.globalExceptionHandller.ServiceBusyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +15,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import static com.saas.ecommerce.utils.Constant.LOGIN_SUCCESS;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -17,11 +24,32 @@ public class AuthController {
     @Autowired
     private RefreshTokenService refreshTokenService;
 
+    @Autowired
+    private AuthService authService;
+
     @Autowired
     private HandleApiResponse handleApiResponse;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
+    /** Any principal kind; send {@code apiKey} to log in as a user of that client. */
+    @PostMapping("/login")
+    public ResponseEntity<?> login(@RequestBody AuthLoginDto dto) {
+        try {
+            AuthLoginResponse response = authService.login(dto);
+            return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, LOGIN_SUCCESS, response);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return handleApiResponse.handleApiFailedResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error during login: {}", e.getMessage());
+            return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestBody TokenRefreshRequest request) {
         try {
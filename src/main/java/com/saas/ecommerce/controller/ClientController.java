@@ -4,8 +4,12 @@ import com.saas.ecommerce.model.dto.ClientRegistrationDto;
 import com.saas.ecommerce.model.dto.ClientLoginDto;
 import com.saas.ecommerce.service.ClientService;
 import com.saas.ecommerce.service.JwtService;
+import com.saas.ecommerce.service.UserImportService;
+import com.saas.ecommerce.tenant.TenantVersions;
 import com.saas.ecommerce.utils.HandleApiResponse;
 import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import com.saas.ecommerce.utils.globalExceptionHandller.ServiceBusyException;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +17,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
 
 import static com.saas.ecommerce.utils.Constant.*;
 
@@ -29,6 +36,12 @@ public class ClientController {
     @Autowired
     private HandleApiResponse handleApiResponse;
 
+    @Autowired
+    private UserImportService importService;
+
+    @Autowired
+    private TenantVersions versions;
+
     private static final Logger logger = LoggerFactory.getLogger(ClientController.class);
 
     @PostMapping("/register")
@@ -36,6 +49,8 @@ public class ClientController {
         try {
             var response = service.register(dto);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.CREATED, REGISTRATION_SUCCESS, response);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
         } catch (CustomBusinessException e) {
             return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
@@ -48,6 +63,8 @@ public class ClientController {
         try {
             var response = service.login(dto);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, LOGIN_SUCCESS, response);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
         } catch (CustomBusinessException e) {
             return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
@@ -55,9 +72,14 @@ public class ClientController {
         }
     }
 
+    /** Carries a strong ETag; {@code If-None-Match} with the current one is answered 304 without a query. */
     @GetMapping("/users")
     @PreAuthorize("hasRole('ROLE_CLIENT')")
-    public ResponseEntity<?> getUserList(@RequestHeader("Authorization") String authorizationHeader) {
+    public ResponseEntity<?> getUserList(@RequestHeader("Authorization") String authorizationHeader,
+                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", required = false) Integer size,
+                                         @RequestParam(value = "estimate_total", defaultValue = "false") boolean estimateTotal,
+                                         WebRequest webRequest) {
         try {
             if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
                 return handleApiResponse.handleApiFailedResponse(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
@@ -67,8 +89,13 @@ public class ClientController {
             if (clientId == null || clientId == 0L) {
                 return handleApiResponse.handleApiFailedResponse(HttpStatus.BAD_REQUEST, "Invalid client ID in token");
             }
-            var response = service.fetchUsers(clientId);
+            if (versions.checkNotModified(webRequest, clientId, "client-users", cursor, size, estimateTotal)) {
+                return null; // 304 already set
+            }
+            var response = service.fetchUsers(clientId, cursor, size, estimateTotal);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, SUCCESS, response);
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
             return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         }
@@ -99,6 +126,37 @@ public class ClientController {
         }
     }
 
+    /**
+     * Bulk-creates users in the caller's tenant from a streamed body: {@code text/csv} with a header
+     * row, or JSON ({@code application/x-ndjson} lines or an {@code application/json} array) of
+     * {@link com.saas.ecommerce.model.dto.UserDto}. Answers with a per-row error report.
+     */
+    @PostMapping(value = "/users/import", consumes = {"text/csv", "application/x-ndjson", "application/json"})
+    @PreAuthorize("hasRole('ROLE_CLIENT')")
+    public ResponseEntity<?> importUsers(@RequestHeader("Authorization") String authorizationHeader, HttpServletRequest request) {
+        try {
+            if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+                return handleApiResponse.handleApiFailedResponse(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
+            }
+            String token = authorizationHeader.substring(7);
+            Long clientId = jwtService.extractClientId(token);
+            if (clientId == null || clientId == 0L) {
+                return handleApiResponse.handleApiFailedResponse(HttpStatus.BAD_REQUEST, "Invalid client ID in token");
+            }
+            var report = importService.importUsers(request.getInputStream(),
+                    UserImportService.formatOf(request.getContentType()), clientId);
+            return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, SUCCESS, report);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
+        } catch (IOException e) {
+            return handleApiResponse.handleApiFailedResponse(HttpStatus.BAD_REQUEST, "Unreadable import body: " + e.getMessage());
+        } catch (Exception e) {
+            return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("Test Data is success.");
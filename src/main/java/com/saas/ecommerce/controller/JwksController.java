@@ -0,0 +1,35 @@
+package com.saas.ecommerce.controller;
+
+import com.saas.ecommerce.service.KeyGeneratorService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Publishes the public signing keys so gateways and other services can verify access tokens
+ * locally. Only populated when {@code jwt.signing.algorithm} is ES256 or EdDSA.
+ */
+@RestController
+public class JwksController {
+
+    private final KeyGeneratorService keyGeneratorService;
+    private final Duration maxAge;
+
+    public JwksController(KeyGeneratorService keyGeneratorService,
+                          @Value("${jwt.jwks.max-age-seconds:300}") long maxAgeSeconds) {
+        this.keyGeneratorService = keyGeneratorService;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+                .body(Map.of("keys", keyGeneratorService.getPublicJwks()));
+    }
+}
@@ -1,24 +1,26 @@
 package com.saas.ecommerce.controller;
 
 import com.saas.ecommerce.model.dto.*;
-import com.saas.ecommerce.model.entity.Client;
-import com.saas.ecommerce.model.entity.User;
 import com.saas.ecommerce.service.ClientService;
 import com.saas.ecommerce.service.KeyGeneratorService;
 import com.saas.ecommerce.service.SuperAdminService;
+import com.saas.ecommerce.service.UserExportService;
 import com.saas.ecommerce.service.UserService;
 import com.saas.ecommerce.utils.HandleApiResponse;
 import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import com.saas.ecommerce.utils.globalExceptionHandller.ServiceBusyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 import static com.saas.ecommerce.utils.Constant.*;
 
@@ -43,11 +45,16 @@ public class SuperAdminController {
     @Autowired
     private SuperAdminService service;
 
+    @Autowired
+    private UserExportService exportService;
+
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody SuperAdminRegistrationDto dto) {
         try {
             var response = service.register(dto);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.CREATED, REGISTRATION_SUCCESS, response);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
         } catch (CustomBusinessException e) {
             return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
@@ -56,11 +63,12 @@ public class SuperAdminController {
     }
 
     @PostMapping("/login")
-    @RateLimiter(name = "loginLimiter")
     public ResponseEntity<?> login(@RequestBody SuperAdminLoginDto dto) {
         try {
             var response = service.login(dto);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, LOGIN_SUCCESS, response);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
         } catch (CustomBusinessException e) {
             return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
@@ -75,30 +83,67 @@ public class SuperAdminController {
     }
 
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                         @RequestParam(value = "size", required = false) Integer size,
+                                         @RequestParam(value = "estimate_total", defaultValue = "false") boolean estimateTotal) {
         try {
-            List<User> users = service.getAllUsers();
+            CursorPage<UserSummary> users = service.getAllUsers(cursor, size, estimateTotal);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, SUCCESS, users);
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
             return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         }
     }
 
     @GetMapping("/user")
-    public ResponseEntity<?> getUsersByClientId(@RequestParam("client_id") Long clientId) {
+    public ResponseEntity<?> getUsersByClientId(@RequestParam("client_id") Long clientId,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "size", required = false) Integer size,
+                                                @RequestParam(value = "estimate_total", defaultValue = "false") boolean estimateTotal) {
         try {
-            List<User> users = service.getUsersByClientId(clientId);
+            CursorPage<UserSummary> users = service.getUsersByClientId(clientId, cursor, size, estimateTotal);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, "SUCCESS", users);
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
             return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         }
     }
 
+    /**
+     * Bulk export (NDJSON by default, or CSV) streamed from the database as it is read; optional
+     * tenant and {@code [created_from, created_to)} filters. Errors after the first byte cut the stream.
+     */
+    @GetMapping("/users/export")
+    public ResponseEntity<?> exportUsers(@RequestParam(value = "format", required = false) String format,
+                                         @RequestParam(value = "client_id", required = false) Long clientId,
+                                         @RequestParam(value = "created_from", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                                         @RequestParam(value = "created_to", required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        try {
+            UserExportService.Format fmt = UserExportService.Format.parse(format);
+            StreamingResponseBody body = out -> exportService.export(out, fmt, clientId, createdFrom, createdTo);
+            String file = "users" + (clientId != null ? "-" + clientId : "") + "." + fmt.extension;
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_TYPE, fmt.contentType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                    .body(body);
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
+        }
+    }
+
     @GetMapping("/clients")
-    public ResponseEntity<?> getAllClients() {
+    public ResponseEntity<?> getAllClients(@RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "size", required = false) Integer size,
+                                           @RequestParam(value = "estimate_total", defaultValue = "false") boolean estimateTotal) {
         try {
-            List<Client> clients = clientService.getAllClients();
+            CursorPage<ClientSummary> clients = clientService.getAllClients(cursor, size, estimateTotal);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, SUCCESS, clients);
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
             return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         }
@@ -107,7 +152,7 @@ public class SuperAdminController {
     @GetMapping("/client")
     public ResponseEntity<?> getClientById(@RequestParam("id") Long id) {
         try {
-            Client client = clientService.findById(id);
+            ClientSummary client = clientService.getClientSummary(id);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, SUCCESS, client);
         } catch (Exception e) {
             return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
@@ -3,12 +3,14 @@ package com.saas.ecommerce.controller;
 import com.saas.ecommerce.model.dto.*;
 import com.saas.ecommerce.model.entity.Client;
 import com.saas.ecommerce.repository.ClientRepository;
+import com.saas.ecommerce.search.UserSearchService;
 import com.saas.ecommerce.service.JwtService;
 import com.saas.ecommerce.service.UserService;
+import com.saas.ecommerce.tenant.TenantVersions;
 import com.saas.ecommerce.utils.Constant;
 import com.saas.ecommerce.utils.HandleApiResponse;
 import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
-import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import com.saas.ecommerce.utils.globalExceptionHandller.ServiceBusyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +18,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -34,6 +37,10 @@ public class UserController {
     private HandleApiResponse handleApiResponse;
     @Autowired
     private JwtService jwtService;
+    @Autowired
+    private UserSearchService searchService;
+    @Autowired
+    private TenantVersions versions;
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     @PostMapping("/register")
@@ -56,6 +63,8 @@ public class UserController {
             }
             UserRegistrationResponse user = service.createUser(dto, clientId);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.CREATED, REGISTRATION_SUCCESS, user);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
         } catch (CustomBusinessException e) {
             return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
@@ -64,7 +73,6 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    @RateLimiter(name = "loginLimiter")
     public ResponseEntity<?> login(@RequestBody UserLoginDto dto) {
         try {
             if (dto.apiKey() == null || dto.apiKey().isEmpty()) {
@@ -80,6 +88,8 @@ public class UserController {
             }
             UserLoginResponse user = service.login(dto, clientId);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.CREATED, REGISTRATION_SUCCESS, user);
+        } catch (ServiceBusyException e) {
+            throw e; // GlobalExceptionHandler adds Retry-After
         } catch (CustomBusinessException e) {
             return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
         } catch (Exception e) {
@@ -87,9 +97,41 @@ public class UserController {
         }
     }
 
+    /** Carries a strong ETag; {@code If-None-Match} with the current one is answered 304 without a query. */
     @GetMapping("/users")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<?> fetchUsers(@RequestHeader("Authorization") String authorizationHeader) {
+    public ResponseEntity<?> fetchUsers(@RequestHeader("Authorization") String authorizationHeader,
+                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "size", required = false) Integer size,
+                                        @RequestParam(value = "estimate_total", defaultValue = "false") boolean estimateTotal,
+                                        WebRequest webRequest) {
+        try {
+            if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+                return handleApiResponse.handleApiFailedResponse(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
+            }
+            String token = authorizationHeader.substring(7);
+            Long clientId = jwtService.extractClientId(token);
+            if (clientId == null || clientId == 0L) {
+                return handleApiResponse.handleApiFailedResponse(HttpStatus.BAD_REQUEST, "Invalid client ID in token");
+            }
+            if (versions.checkNotModified(webRequest, clientId, "admin-users", cursor, size, estimateTotal)) {
+                return null; // 304 already set
+            }
+            var response = service.fetchUsers(clientId, cursor, size, estimateTotal);
+            return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, SUCCESS, response);
+        } catch (CustomBusinessException e) {
+            return handleApiResponse.handleApiFailedResponse(e.getHttpStatus(), e.getMessage());
+        } catch (Exception e) {
+            return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    /** Typeahead over the tenant's users: prefix for 1-2 characters, substring (trigram) beyond. */
+    @GetMapping("/users/search")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<?> searchUsers(@RequestHeader("Authorization") String authorizationHeader,
+                                         @RequestParam("q") String query,
+                                         @RequestParam(value = "limit", required = false) Integer limit) {
         try {
             if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
                 return handleApiResponse.handleApiFailedResponse(HttpStatus.UNAUTHORIZED, "Missing or invalid Authorization header");
@@ -99,7 +141,7 @@ public class UserController {
             if (clientId == null || clientId == 0L) {
                 return handleApiResponse.handleApiFailedResponse(HttpStatus.BAD_REQUEST, "Invalid client ID in token");
             }
-            var response = service.fetchUsers(clientId);
+            var response = searchService.search(clientId, query, limit);
             return handleApiResponse.handleApiSuccessResponse(HttpStatus.OK, SUCCESS, response);
         } catch (Exception e) {
             return handleApiResponse.handleApiFailedResponse(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
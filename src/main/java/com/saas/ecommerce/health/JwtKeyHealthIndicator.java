@@ -1,5 +1,6 @@
 package com.saas.ecommerce.health;
 
+import com.saas.ecommerce.service.JwtKeyring;
 import com.saas.ecommerce.service.KeyGeneratorService;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.health.Health;
@@ -31,12 +32,15 @@ public class JwtKeyHealthIndicator implements HealthIndicator {
     @Override
     public Health health() {
         String key = keyService.getCurrentJwtSecret();
+        boolean symmetric = JwtKeyring.HS256.equals(keyService.getSigningAlgorithm());
         boolean base64Valid = true;
         int decodedLen = 0;
-        try {
-            decodedLen = Base64.getDecoder().decode(key).length;
-        } catch (Exception e) {
-            base64Valid = false;
+        if (symmetric) {
+            try {
+                decodedLen = Base64.getDecoder().decode(key).length;
+            } catch (Exception e) {
+                base64Valid = false;
+            }
         }
         boolean fileSaved = Files.exists(Paths.get(SECRET_KEY_PATH));
         boolean redisSaved = false;
@@ -47,9 +51,11 @@ public class JwtKeyHealthIndicator implements HealthIndicator {
         }
 
         return Health.up()
-                .withDetail("base64Length", key != null ? key.length() : 0)
+                .withDetail("algorithm", keyService.getSigningAlgorithm())
+                .withDetail("base64Length", symmetric && key != null ? key.length() : 0)
                 .withDetail("decodedBytes", decodedLen)
                 .withDetail("base64Valid", base64Valid)
+                .withDetail("kid", keyService.getKeyring().current().kid())
                 .withDetail("fileSaved", fileSaved)
                 .withDetail("redisSaved", redisSaved)
                 .build();
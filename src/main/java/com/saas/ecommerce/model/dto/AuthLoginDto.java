@@ -0,0 +1,8 @@
+package com.saas.ecommerce.model.dto;
+
+/** {@code apiKey} is required for tenant users and omitted for super admins and clients. */
+public record AuthLoginDto(
+        String email,
+        String password,
+        String apiKey
+) {}
@@ -0,0 +1,10 @@
+package com.saas.ecommerce.model.dto;
+
+public record AuthLoginResponse(
+        String accessToken,
+        String refreshToken,
+        String roles,
+        Long principalId,
+        Long clientId,
+        String email
+) {}
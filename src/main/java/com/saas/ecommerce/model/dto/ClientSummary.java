@@ -0,0 +1,15 @@
+package com.saas.ecommerce.model.dto;
+
+import java.time.LocalDateTime;
+
+/** Read model for client listings; the API key and password hash stay out of responses. */
+public record ClientSummary(
+        Long id,
+        String name,
+        String email,
+        String phoneNumber,
+        String roles,
+        String plan,
+        boolean active,
+        LocalDateTime createdAt
+) {}
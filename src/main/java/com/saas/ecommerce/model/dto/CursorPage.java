@@ -0,0 +1,27 @@
+package com.saas.ecommerce.model.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page. {@code nextCursor} is null on the last page; {@code estimatedTotal} is only
+ * filled when the caller asked for it (and may lag the real count).
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor,
+        Long estimatedTotal
+) {
+    /** {@code rows} is fetched with {@code size + 1} as the limit: the extra row only proves there is a next page. */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf, Long estimatedTotal) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, estimatedTotal);
+        }
+        List<T> page = rows.subList(0, size);
+        return new CursorPage<>(List.copyOf(page), cursorOf.apply(page.get(size - 1)), estimatedTotal);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).toList(), nextCursor, estimatedTotal);
+    }
+}
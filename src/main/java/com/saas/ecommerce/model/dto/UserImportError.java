@@ -0,0 +1,8 @@
+package com.saas.ecommerce.model.dto;
+
+/** A rejected import row; {@code row} is 1-based over data rows (a CSV header is not counted). */
+public record UserImportError(
+        long row,
+        String email,
+        String message
+) {}
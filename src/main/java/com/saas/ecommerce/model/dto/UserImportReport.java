@@ -0,0 +1,12 @@
+package com.saas.ecommerce.model.dto;
+
+import java.util.List;
+
+public record UserImportReport(
+        long rows,
+        long imported,
+        long rejected,
+        List<UserImportError> errors,
+        boolean errorsTruncated,
+        long durationMs
+) {}
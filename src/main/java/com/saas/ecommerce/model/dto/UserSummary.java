@@ -0,0 +1,24 @@
+package com.saas.ecommerce.model.dto;
+
+import com.saas.ecommerce.model.entity.User;
+
+import java.time.LocalDateTime;
+
+/** Read model for user listings: selected straight from {@code users}, never hydrated as an entity. */
+public record UserSummary(
+        Long id,
+        Long clientId,
+        String name,
+        String email,
+        String phoneNumber,
+        String gender,
+        String dob,
+        String roles,
+        boolean active,
+        LocalDateTime createdAt
+) {
+    public static UserSummary of(User u) {
+        return new UserSummary(u.getId(), u.getClientId(), u.getName(), u.getEmail(), u.getPhoneNumber(),
+                u.getGender(), u.getDob(), u.getRoles(), u.isActive(), u.getCreatedAt());
+    }
+}
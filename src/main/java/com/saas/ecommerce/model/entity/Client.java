@@ -2,18 +2,23 @@ package com.saas.ecommerce.model.entity;
 
 import com.saas.ecommerce.utils.Constant;
 import jakarta.persistence.*;
-import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.proxy.HibernateProxy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
-@Table(name = "clients")
-@Data
+@Table(name = "clients", indexes = {
+        // TenantRegistry change feed
+        @Index(name = "idx_clients_updated_at", columnList = "updated_at")
+})
+@Getter
+@Setter
 public class Client implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,15 +37,6 @@ public class Client implements UserDetails {
     @Getter
     private String roles = Constant.ROLE_CLIENT;
 
-    @Setter
-    @Getter
-    @Column(name = "access_token", length = 512)
-    private String accessToken; // Store JWT access token (optional, depending on your use case)
-    @Setter
-    @Getter
-    @Column(name = "token", length = 512)
-    private String token; // Refresh token (optional)
-
     @Column(nullable = false)
     private String password; // Hashed
 
@@ -53,6 +49,18 @@ public class Client implements UserDetails {
     @Column(name = "is_active", nullable = false)
     private boolean active = true;
 
+    @Column(nullable = false)
+    private String plan = "standard";
+
+    /** Per-tenant request limit ({@code "<per-second>/<burst>"}); null uses the configured default. */
+    @Column(name = "rate_limit", length = 32)
+    private String rateLimit;
+
+    /** Maintained by MySQL on every row change (JPA or not); drives the tenant registry's change feed. */
+    @Column(name = "updated_at", insertable = false, updatable = false,
+            columnDefinition = "TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)")
+    private Instant updatedAt;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Arrays.stream(roles.split(","))
@@ -92,6 +100,22 @@ public class Client implements UserDetails {
         return active;
     }
 
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null) return false;
+        Class<?> oEffectiveClass = o instanceof HibernateProxy ? ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) return false;
+        Client that = (Client) o;
+        return getId() != null && Objects.equals(getId(), that.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass().hashCode() : getClass().hashCode();
+    }
+
     @PrePersist
     public void prePersist() {
         if (roles == null || roles.isBlank()) {
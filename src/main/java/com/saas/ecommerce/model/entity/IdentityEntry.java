@@ -0,0 +1,51 @@
+package com.saas.ecommerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One row per principal of any kind, keyed for login: {@code (tenant_id, email)} resolves the
+ * principal, its password hash and everything needed to mint tokens without touching
+ * {@code super_admins} / {@code clients} / {@code users}. Super admins and clients sit in tenant
+ * {@link #PLATFORM}; users sit in their client's tenant. {@code kind} uses {@code PrincipalKeys}.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "identity_directory",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_identity_login", columnNames = {"tenant_id", "email", "kind"}),
+                @UniqueConstraint(name = "uk_identity_principal", columnNames = {"kind", "principal_id"})
+        })
+public class IdentityEntry {
+    public static final long PLATFORM = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private long tenantId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private int kind;
+
+    @Column(name = "principal_id", nullable = false)
+    private long principalId;
+
+    /** Owning client for users, the client itself for clients, null for super admins. */
+    @Column(name = "client_id")
+    private Long clientId;
+
+    private String roles;
+
+    @Column(name = "password_hash", nullable = false)
+    private String passwordHash;
+
+    @Column(nullable = false)
+    private boolean active = true;
+}
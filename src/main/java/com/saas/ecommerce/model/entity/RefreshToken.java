@@ -1,21 +1,39 @@
 package com.saas.ecommerce.model.entity;
 
+import com.saas.ecommerce.utils.Digests;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        // owner lookups: findBy<Owner>AndRevokedFalseAndExpiryDateAfter
+        @Index(name = "idx_refresh_client_active", columnList = "client_id, revoked, expiry_date"),
+        @Index(name = "idx_refresh_user_active", columnList = "user_id, revoked, expiry_date"),
+        @Index(name = "idx_refresh_super_admin_active", columnList = "super_admin_id, revoked, expiry_date"),
+        // purge batches (RefreshTokenPurgeService)
+        @Index(name = "idx_refresh_expiry", columnList = "expiry_date"),
+        @Index(name = "idx_refresh_revoked", columnList = "revoked")
+})
 @Data
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    /** SHA-256 of the token; the raw value is never stored. */
+    @Column(name = "token_hash", columnDefinition = "BINARY(32)", unique = true)
+    private byte[] tokenHash;
+
+    /** Raw value, only in memory right after issue (to hand back to the caller). */
+    @Transient
     private String token;
 
+    /** Pre-hash column; a one-time migration (config/SchemaMigrations) backfilled token_hash and cleared it. */
+    @Column(name = "token")
+    private String legacyToken;
+
     @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
 
@@ -25,6 +43,9 @@ public class RefreshToken {
     @Column(name = "sid", nullable = false)
     private String sid;
 
+    @Column(name = "epoch")
+    private Long epoch; // null for sid-bound (pre-epoch) sessions
+
     @ManyToOne
     @JoinColumn(name = "super_admin_id")
     private SuperAdmin superAdmin;
@@ -36,4 +57,10 @@ public class RefreshToken {
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User user;
-}
\ No newline at end of file
+
+    public void setToken(String token) {
+        this.token = token;
+        this.tokenHash = Digests.sha256(token);
+        this.legacyToken = null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.saas.ecommerce.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/** Schema for {@code session_epochs}; rows are written with JDBC by {@code DbSessionEpochStore}. */
+@Entity
+@Getter
+@Setter
+@Table(name = "session_epochs")
+public class SessionEpoch {
+    @Id
+    @Column(name = "principal_key")
+    private Long principalKey;
+
+    @Column(nullable = false)
+    private long epoch;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -48,14 +48,6 @@ public class SuperAdmin implements UserDetails {
     private String roles = Constant.ROLE_SUPER_ADMIN;
     @Setter
     @Getter
-    @Column(name = "access_token", length = 512)
-    private String accessToken; // Store JWT access token (optional, depending on your use case)
-    @Setter
-    @Getter
-    @Column(name = "token", length = 512)
-    private String token; // Refresh token (optional)
-    @Setter
-    @Getter
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     @Setter
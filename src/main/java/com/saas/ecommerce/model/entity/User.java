@@ -4,6 +4,9 @@ import com.saas.ecommerce.utils.Constant;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,7 +16,14 @@ import java.util.Arrays;
 import java.util.Collection;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // tenant-leading: per-tenant lists and (client_id, id) lookups are range scans on this index
+        @Index(name = "idx_users_client_id", columnList = "client_id, id")
+})
+// enabled per transaction from TenantContext by TenantAwareJpaTransactionManager
+@FilterDef(name = "tenantFilter", parameters = @ParamDef(name = "currentTenant", type = Long.class),
+        defaultCondition = "client_id = :currentTenant")
+@Filter(name = "tenantFilter")
 public class User implements UserDetails {
     @Setter @Getter @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,12 +47,6 @@ public class User implements UserDetails {
     @Setter @Getter @Column(nullable = false)
     private String password;
 
-    @Setter @Getter @Column(name = "access_token", length = 512)
-    private String accessToken;
-
-    @Setter @Getter @Column(name = "token", length = 512)
-    private String token;
-
     @Setter @Getter @Column(name = "is_active", nullable = false)
     private boolean active = true;
 
@@ -0,0 +1,57 @@
+package com.saas.ecommerce.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket as a single "theoretical arrival time" (GCRA): admitting a request is one CAS, there
+ * are no locks and no refill timer. {@link #pending} counts local admissions not yet pushed to Redis;
+ * {@link #charge} folds in admissions other nodes reported for the same key.
+ */
+final class GcraBucket {
+    private final AtomicLong tat;
+    final LongAdder pending = new LongAdder();
+    volatile RateLimitPolicy policy;
+
+    // reconciliation state, only touched by the sync thread
+    long lastGlobal = -1;
+    long lastSyncNanos;
+    long lastActiveNanos;
+
+    GcraBucket(RateLimitPolicy policy, long now) {
+        this.policy = policy;
+        this.tat = new AtomicLong(now);
+        this.lastActiveNanos = now;
+    }
+
+    /** 0 if admitted, otherwise nanos until the next permit. */
+    long tryAcquire(long now) {
+        RateLimitPolicy p = policy;
+        long interval = p.intervalNanos();
+        long tolerance = p.toleranceNanos();
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            long ahead = base - now;
+            if (ahead > tolerance) return ahead - tolerance;
+            if (tat.compareAndSet(current, base + interval)) {
+                pending.increment();
+                return 0L;
+            }
+        }
+    }
+
+    /** Consumes {@code permits} admitted elsewhere; debt is capped so a global spike cannot lock a key out for long. */
+    void charge(long permits, long now) {
+        if (permits <= 0) return;
+        RateLimitPolicy p = policy;
+        long interval = p.intervalNanos();
+        long cap = now + p.toleranceNanos() + interval * p.burst();
+        long debt = Math.min(permits, 2L * p.burst()) * interval;
+        while (true) {
+            long current = tat.get();
+            long next = Math.min(cap, Math.max(current, now) + debt);
+            if (next <= current || tat.compareAndSet(current, next)) return;
+        }
+    }
+}
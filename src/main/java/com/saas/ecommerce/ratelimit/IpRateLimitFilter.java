@@ -0,0 +1,75 @@
+package com.saas.ecommerce.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Runs before {@code TokenValidationFilter}, so every request is charged to its client address
+ * before any token is parsed: a flood of missing, forged or expired bearer tokens is limited like
+ * any other traffic instead of costing a signature check each.
+ * <p>
+ * With {@code trust-forwarded-for} the direct peer is taken to be our own reverse proxy, and the
+ * client is the rightmost {@code X-Forwarded-For} entry that is not in {@code trusted-proxies}
+ * (addresses or CIDR ranges of further proxies in front of it, e.g. a CDN). Entries to the left of
+ * that one were written by the client and are never used, so rotating them cannot buy fresh buckets.
+ */
+public class IpRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiterService limiter;
+    private final boolean trustForwardedFor;
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public IpRateLimitFilter(RateLimiterService limiter, boolean trustForwardedFor, List<String> trustedProxies) {
+        this.limiter = limiter;
+        this.trustForwardedFor = trustForwardedFor;
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String ip = trustForwardedFor ? clientIp(request.getRemoteAddr(), request.getHeader("X-Forwarded-For"))
+                : request.getRemoteAddr();
+        long wait = limiter.tryAcquire(RateLimitScope.IP, ip);
+        if (wait > 0) {
+            RateLimitFilter.reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /** Rightmost forwarded hop that is not a trusted proxy; the peer address if there is none. */
+    String clientIp(String remoteAddr, String forwardedFor) {
+        if (forwardedFor == null) return remoteAddr;
+        int end = forwardedFor.length();
+        while (end > 0) {
+            int comma = forwardedFor.lastIndexOf(',', end - 1);
+            String hop = forwardedFor.substring(comma + 1, end).trim();
+            if (!hop.isEmpty() && !trusted(hop)) return hop;
+            end = comma < 0 ? 0 : comma;
+        }
+        return remoteAddr;
+    }
+
+    private boolean trusted(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) return true;
+            } catch (IllegalArgumentException e) {
+                return false; // not an IP literal: never one of ours
+            }
+        }
+        return false;
+    }
+}
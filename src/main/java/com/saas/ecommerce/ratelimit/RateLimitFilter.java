@@ -0,0 +1,55 @@
+package com.saas.ecommerce.ratelimit;
+
+import com.saas.ecommerce.security.AuthPrincipal;
+import com.saas.ecommerce.utils.TenantContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs right after {@code TokenValidationFilter}: authenticated requests are charged to their tenant
+ * and principal, so one noisy tenant only drains its own buckets. The per-address bucket is charged
+ * earlier by {@link IpRateLimitFilter}, and login endpoints add a per-account bucket in the services
+ * (the email is in the body).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiterService limiter;
+
+    public RateLimitFilter(RateLimiterService limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long wait = 0;
+        Long tenant = TenantContext.getCurrentTenant();
+        if (tenant != null) wait = limiter.tryAcquire(RateLimitScope.TENANT, tenant.toString());
+        if (wait == 0) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.getPrincipal() instanceof AuthPrincipal p) {
+                wait = limiter.tryAcquire(RateLimitScope.PRINCIPAL, p.clientId() + ":" + p.username());
+            }
+        }
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(RateLimiterService.retryAfterSeconds(waitNanos)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\": false, \"message\": \"Too many requests\"}");
+    }
+}
@@ -0,0 +1,31 @@
+package com.saas.ecommerce.ratelimit;
+
+/**
+ * Sustained rate plus burst, written {@code "<permits-per-second>/<burst>"} in properties
+ * (e.g. {@code "20/40"}). Internally a GCRA: one permit every {@link #intervalNanos()}, with up to
+ * {@code burst} permits admitted back to back.
+ */
+public record RateLimitPolicy(double permitsPerSecond, int burst) {
+
+    public RateLimitPolicy {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs permits-per-second > 0 and burst >= 1");
+        }
+    }
+
+    public static RateLimitPolicy parse(String spec) {
+        String[] parts = spec.trim().split("/");
+        double rate = Double.parseDouble(parts[0].trim());
+        int burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : (int) Math.max(1, Math.ceil(rate));
+        return new RateLimitPolicy(rate, burst);
+    }
+
+    long intervalNanos() {
+        return (long) (1_000_000_000L / permitsPerSecond);
+    }
+
+    /** How far ahead of "now" the theoretical arrival time may run and still admit a request. */
+    long toleranceNanos() {
+        return intervalNanos() * (burst - 1);
+    }
+}
@@ -0,0 +1,13 @@
+package com.saas.ecommerce.ratelimit;
+
+/** What a bucket is keyed by; each scope has its own default policy and Redis key space. */
+public enum RateLimitScope {
+    /** Client address, for every request including the public ones. */
+    IP,
+    /** Client id (from the token, or the api key's client on user login). */
+    TENANT,
+    /** Authenticated principal, qualified by tenant. */
+    PRINCIPAL,
+    /** Login attempts per account, so one email cannot be brute-forced from many addresses. */
+    LOGIN
+}
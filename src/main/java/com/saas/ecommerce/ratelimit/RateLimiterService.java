@@ -0,0 +1,226 @@
+package com.saas.ecommerce.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saas.ecommerce.session.SessionStoreConfig;
+import com.saas.ecommerce.tenant.TenantChangedEvent;
+import com.saas.ecommerce.tenant.TenantRegistry;
+import com.saas.ecommerce.tenant.TenantStatus;
+import com.saas.ecommerce.utils.globalExceptionHandller.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limits keyed by {@link RateLimitScope}. Decisions are purely local (one CAS on a
+ * {@link GcraBucket}); a background task pushes each active key's local admissions to a Redis
+ * counter and charges the bucket with what the other nodes admitted since the last sync. Until the
+ * next sync every node may admit up to the full burst on its own, so the cluster-wide overshoot is
+ * bounded by nodes x burst per sync interval. Without Redis the limits are per node.
+ */
+@Service
+public class RateLimiterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterService.class);
+    private static final String KEY_PREFIX = "rl:";
+    private static final int SYNC_BATCH = 256;
+
+    // KEYS = counters, ARGV[1] = ttl millis, ARGV[i + 1] = local admissions for KEYS[i]; returns the totals
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> SYNC = new DefaultRedisScript<>("""
+            local out = {}
+            for i = 1, #KEYS do
+              out[i] = redis.call('INCRBY', KEYS[i], ARGV[i + 1])
+              redis.call('PEXPIRE', KEYS[i], ARGV[1])
+            end
+            return out
+            """, List.class);
+
+    private final boolean enabled;
+    private final StringRedisTemplate redis;
+    private final TenantRegistry tenantRegistry;
+    private final Cache<String, GcraBucket> buckets;
+    private final EnumMap<RateLimitScope, RateLimitPolicy> defaults = new EnumMap<>(RateLimitScope.class);
+    private final Map<String, RateLimitPolicy> tenantOverrides;
+    private final long staleAfterNanos;
+    private final String counterTtlMillis;
+
+    private final EnumMap<RateLimitScope, Counter> rejected = new EnumMap<>(RateLimitScope.class);
+    private final Timer syncTimer;
+
+    public RateLimiterService(Optional<StringRedisTemplate> redisOpt,
+                              Optional<RedisConnectionFactory> redisCfOpt,
+                              TenantRegistry tenantRegistry,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                              @Value("${app.rate-limit.ip:20/40}") String ipPolicy,
+                              @Value("${app.rate-limit.tenant:200/400}") String tenantPolicy,
+                              @Value("${app.rate-limit.principal:20/40}") String principalPolicy,
+                              @Value("${app.rate-limit.login:1/5}") String loginPolicy,
+                              @Value("${app.rate-limit.tenant-overrides:}") String tenantOverrides,
+                              @Value("${app.rate-limit.max-keys:200000}") long maxKeys,
+                              @Value("${app.rate-limit.sync-interval-ms:1000}") long syncIntervalMs) {
+        this.enabled = enabled;
+        this.tenantRegistry = tenantRegistry;
+        this.redis = redisOpt.isPresent() && SessionStoreConfig.redisUp(redisCfOpt, logger) ? redisOpt.get() : null;
+        defaults.put(RateLimitScope.IP, RateLimitPolicy.parse(ipPolicy));
+        defaults.put(RateLimitScope.TENANT, RateLimitPolicy.parse(tenantPolicy));
+        defaults.put(RateLimitScope.PRINCIPAL, RateLimitPolicy.parse(principalPolicy));
+        defaults.put(RateLimitScope.LOGIN, RateLimitPolicy.parse(loginPolicy));
+        this.tenantOverrides = parseOverrides(tenantOverrides);
+        this.staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMs * 5);
+        this.counterTtlMillis = String.valueOf(Math.max(60_000L, syncIntervalMs * 60));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+
+        for (RateLimitScope scope : RateLimitScope.values()) {
+            rejected.put(scope, Counter.builder("rate_limit.rejected")
+                    .tag("scope", scope.name().toLowerCase(Locale.ROOT))
+                    .description("Requests refused by the rate limiter").register(meterRegistry));
+        }
+        this.syncTimer = Timer.builder("rate_limit.sync.duration").register(meterRegistry);
+        Gauge.builder("rate_limit.buckets", buckets, Cache::estimatedSize).register(meterRegistry);
+        logger.info("Rate limiting {}: {}", enabled ? "on" : "off", redis != null
+                ? "local buckets reconciled through Redis every " + syncIntervalMs + "ms" : "node-local buckets (no Redis)");
+    }
+
+    /** 0 if the request may proceed, otherwise nanos until the key has a permit again. */
+    public long tryAcquire(RateLimitScope scope, String key) {
+        if (!enabled || key == null) return 0L;
+        long now = System.nanoTime();
+        String bucketKey = scope.name() + ':' + key;
+        GcraBucket bucket = buckets.get(bucketKey, k -> new GcraBucket(policyFor(scope, key), now));
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) rejected.get(scope).increment();
+        return wait;
+    }
+
+    /** Throws {@link RateLimitExceededException} (429) when the key is over its limit. */
+    public void check(RateLimitScope scope, String key) {
+        long wait = tryAcquire(scope, key);
+        if (wait > 0) throw new RateLimitExceededException(retryAfterSeconds(wait));
+    }
+
+    /**
+     * Per-account login limit. Every login endpoint charges the same key for the same account: principal
+     * kind, tenant (0 for platform principals) and the trimmed, lower-cased email.
+     */
+    public void checkLogin(int kind, long tenantId, String email) {
+        check(RateLimitScope.LOGIN, loginKey(kind, tenantId, email));
+    }
+
+    static String loginKey(int kind, long tenantId, String email) {
+        return kind + ":" + tenantId + ":" + (email == null ? "" : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    /** Tenant policy: property override, else the tenant's own {@code rate_limit}, else the default. */
+    private RateLimitPolicy policyFor(RateLimitScope scope, String key) {
+        if (scope == RateLimitScope.TENANT) {
+            RateLimitPolicy override = tenantOverrides.get(key);
+            if (override != null) return override;
+            TenantStatus tenant = tenantRegistry.get(Long.parseLong(key));
+            if (tenant != null && tenant.rateLimit() != null) return tenant.rateLimit();
+        }
+        return defaults.get(scope);
+    }
+
+    @EventListener
+    public void onTenantChanged(TenantChangedEvent event) {
+        String key = Long.toString(event.current().id());
+        GcraBucket bucket = buckets.getIfPresent(RateLimitScope.TENANT.name() + ':' + key);
+        if (bucket != null) bucket.policy = policyFor(RateLimitScope.TENANT, key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sync-interval-ms:1000}")
+    public void reconcile() {
+        if (!enabled || redis == null) return;
+        syncTimer.record(() -> {
+            long now = System.nanoTime();
+            List<String> keys = new ArrayList<>(SYNC_BATCH);
+            List<GcraBucket> batch = new ArrayList<>(SYNC_BATCH);
+            List<Long> locals = new ArrayList<>(SYNC_BATCH);
+            for (Map.Entry<String, GcraBucket> e : buckets.asMap().entrySet()) {
+                GcraBucket bucket = e.getValue();
+                long local = bucket.pending.sumThenReset();
+                if (local > 0) {
+                    bucket.lastActiveNanos = now;
+                } else if (now - bucket.lastActiveNanos > staleAfterNanos) {
+                    continue; // idle here: nothing to report, nothing worth learning
+                }
+                keys.add(KEY_PREFIX + e.getKey());
+                batch.add(bucket);
+                locals.add(local);
+                if (keys.size() == SYNC_BATCH) {
+                    sync(keys, batch, locals, now);
+                    keys.clear();
+                    batch.clear();
+                    locals.clear();
+                }
+            }
+            if (!keys.isEmpty()) sync(keys, batch, locals, now);
+        });
+    }
+
+    private void sync(List<String> keys, List<GcraBucket> batch, List<Long> locals, long now) {
+        List<?> totals;
+        try {
+            Object[] args = new Object[keys.size() + 1];
+            args[0] = counterTtlMillis;
+            for (int i = 0; i < locals.size(); i++) args[i + 1] = String.valueOf(locals.get(i));
+            totals = redis.execute(SYNC, keys, args);
+        } catch (Exception e) {
+            for (int i = 0; i < batch.size(); i++) batch.get(i).pending.add(locals.get(i)); // retry next round
+            logger.debug("Rate limit sync failed, limits stay node-local: {}", e.getMessage());
+            return;
+        }
+        if (totals == null) return;
+        long chargeAt = System.nanoTime();
+        for (int i = 0; i < batch.size() && i < totals.size(); i++) {
+            GcraBucket bucket = batch.get(i);
+            long local = locals.get(i);
+            long global = ((Number) totals.get(i)).longValue();
+            long others = 0;
+            // first sight, a gap in syncing, or an expired counter: take the total as a new baseline
+            if (bucket.lastGlobal >= 0 && now - bucket.lastSyncNanos <= staleAfterNanos
+                    && global >= bucket.lastGlobal + local) {
+                others = global - bucket.lastGlobal - local;
+            }
+            bucket.lastGlobal = global;
+            bucket.lastSyncNanos = now;
+            bucket.charge(others, chargeAt);
+        }
+    }
+
+    /** {@code "42=500/1000, 7=50/100"}: client id to policy. */
+    private static Map<String, RateLimitPolicy> parseOverrides(String spec) {
+        if (spec == null || spec.isBlank()) return Map.of();
+        Map<String, RateLimitPolicy> out = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Bad tenant rate-limit override: " + entry);
+            out.put(entry.substring(0, eq).trim(), RateLimitPolicy.parse(entry.substring(eq + 1)));
+        }
+        return Map.copyOf(out);
+    }
+}
@@ -1,9 +1,15 @@
 package com.saas.ecommerce.repository;
 
+import com.saas.ecommerce.model.dto.ClientSummary;
 import com.saas.ecommerce.model.entity.Client;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ClientRepository extends JpaRepository<Client, Long> {
@@ -13,4 +19,22 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     @Query("SELECT c FROM Client c WHERE c.clientApiKey = :clientApiKey")
     Optional<Client> findByClientApiKey(String clientApiKey);
 
+    @Query("SELECT new com.saas.ecommerce.model.dto.ClientSummary(c.id, c.name, c.email, c.phoneNumber, c.roles, " +
+            "c.plan, c.active, c.createdAt) FROM Client c WHERE c.id > :afterId ORDER BY c.id")
+    List<ClientSummary> findPage(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.saas.ecommerce.model.dto.ClientSummary(c.id, c.name, c.email, c.phoneNumber, c.roles, " +
+            "c.plan, c.active, c.createdAt) FROM Client c WHERE c.id = :id")
+    Optional<ClientSummary> findSummaryById(@Param("id") Long id);
+
+    // InnoDB's sampled row count: free, but approximate
+    @Query(value = "SELECT COALESCE(MAX(TABLE_ROWS), 0) FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'clients'", nativeQuery = true)
+    long estimateRowCount();
+
+    // rehash-on-login upgrade; runs on the hashing thread, outside any request transaction
+    @Transactional
+    @Modifying
+    @Query("UPDATE Client c SET c.password = :password WHERE c.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.saas.ecommerce.repository;
+
+import com.saas.ecommerce.model.entity.IdentityEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface IdentityDirectoryRepository extends JpaRepository<IdentityEntry, Long> {
+
+    // super admins (kind 3) and clients (kind 1): uk_identity_login with tenant_id = 0; the owning row is
+    // checked by primary key, so a deactivated or deleted client cannot log in on a stale directory row
+    @Query("SELECT d FROM IdentityEntry d WHERE d.tenantId = 0 AND d.email = :email AND d.active = true " +
+            "AND (EXISTS (SELECT 1 FROM Client c WHERE d.kind = 1 AND c.id = d.principalId AND c.active = true) " +
+            "OR EXISTS (SELECT 1 FROM SuperAdmin s WHERE d.kind = 3 AND s.id = d.principalId))")
+    List<IdentityEntry> findPlatformLogin(@Param("email") String email);
+
+    // users: the api key resolves the tenant inside the same statement (unique client_api_key)
+    @Query("SELECT d FROM IdentityEntry d WHERE d.email = :email AND d.active = true " +
+            "AND d.tenantId = (SELECT c.id FROM Client c WHERE c.clientApiKey = :apiKey AND c.active = true)")
+    List<IdentityEntry> findTenantLogin(@Param("email") String email, @Param("apiKey") String apiKey);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdentityEntry d SET d.passwordHash = :password WHERE d.kind = :kind AND d.principalId = :principalId")
+    int updatePassword(@Param("kind") int kind, @Param("principalId") long principalId, @Param("password") String password);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdentityEntry d WHERE d.kind = :kind AND d.principalId = :principalId")
+    int deletePrincipal(@Param("kind") int kind, @Param("principalId") long principalId);
+}
@@ -5,16 +5,26 @@ import com.saas.ecommerce.model.entity.RefreshToken;
 import com.saas.ecommerce.model.entity.SuperAdmin;
 import com.saas.ecommerce.model.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
 
     Optional<RefreshToken> findByClientAndRevokedFalseAndExpiryDateAfter(Client client, LocalDateTime now);
 
     Optional<RefreshToken> findByUserAndRevokedFalseAndExpiryDateAfter(User user, LocalDateTime now);
 
     Optional<RefreshToken> findBySuperAdminAndRevokedFalseAndExpiryDateAfter(SuperAdmin superAdmin, LocalDateTime now);
+
+    // compare-and-rotate: 0 rows means another request already rotated (or revoked) this token
+    @Modifying
+    @Query("update RefreshToken t set t.tokenHash = :newHash, t.expiryDate = :expiry " +
+            "where t.tokenHash = :oldHash and t.revoked = false and t.expiryDate > :now")
+    int rotate(@Param("oldHash") byte[] oldHash, @Param("newHash") byte[] newHash,
+               @Param("expiry") LocalDateTime expiry, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package com.saas.ecommerce.repository;
 
 import com.saas.ecommerce.model.entity.SuperAdmin;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -12,4 +15,10 @@ public interface SuperAdminRepository extends JpaRepository<SuperAdmin, Long> {
 
     @Query("SELECT sa FROM SuperAdmin sa WHERE sa.id = :id")
     SuperAdmin findById();
+
+    // rehash-on-login upgrade; runs on the hashing thread, outside any request transaction
+    @Transactional
+    @Modifying
+    @Query("UPDATE SuperAdmin sa SET sa.password = :password WHERE sa.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.saas.ecommerce.repository;
 
+import com.saas.ecommerce.model.dto.UserSummary;
 import com.saas.ecommerce.model.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,10 +16,42 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email = :email")
     User findByEmail(String email);
 
-    @Query("SELECT u FROM User u WHERE u.clientId = :clientId")
-    Optional<List<User>> findByClientId(Long clientId);
+    // emails are unique across tenants; native SQL is not subject to the tenant filter
+    @Query(value = "SELECT COUNT(*) FROM users WHERE email = :email", nativeQuery = true)
+    long countByEmailInAnyTenant(@Param("email") String email);
 
-    @Query("SELECT u FROM User u WHERE u.clientId = :clientId AND u.id = :id")
-    Optional<User> fetchUserByClientIdAndUserId(Long clientId, Long id);
+    @Query("SELECT new com.saas.ecommerce.model.dto.UserSummary(u.id, u.clientId, u.name, u.email, u.phoneNumber, " +
+            "u.gender, u.dob, u.roles, u.active, u.createdAt) FROM User u WHERE u.clientId = :clientId AND u.id = :id")
+    Optional<UserSummary> findSummary(@Param("clientId") Long clientId, @Param("id") Long id);
 
+    // keyset pages on idx_users_client_id(client_id, id): each page is a range scan from the cursor;
+    // listings select the summary columns only, so no entity is hydrated or dirty-checked
+    @Query("SELECT new com.saas.ecommerce.model.dto.UserSummary(u.id, u.clientId, u.name, u.email, u.phoneNumber, " +
+            "u.gender, u.dob, u.roles, u.active, u.createdAt) FROM User u WHERE u.clientId = :clientId AND u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findPageByClientId(@Param("clientId") Long clientId, @Param("afterId") Long afterId, Limit limit);
+
+    // all tenants: rows without a client first (client_id IS NULL AND id > ?), then a row-constructor range
+    // (client_id, id) > (?, ?), which MySQL range-scans where the equivalent OR form may not
+    @Query("SELECT new com.saas.ecommerce.model.dto.UserSummary(u.id, u.clientId, u.name, u.email, u.phoneNumber, " +
+            "u.gender, u.dob, u.roles, u.active, u.createdAt) FROM User u WHERE u.clientId IS NULL AND u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findPageWithoutClient(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT new com.saas.ecommerce.model.dto.UserSummary(u.id, u.clientId, u.name, u.email, u.phoneNumber, " +
+            "u.gender, u.dob, u.roles, u.active, u.createdAt) FROM User u WHERE (u.clientId, u.id) > (:afterClientId, :afterId) " +
+            "ORDER BY u.clientId, u.id")
+    List<UserSummary> findPage(@Param("afterClientId") Long afterClientId, @Param("afterId") Long afterId, Limit limit);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.clientId = :clientId")
+    long countByClientId(@Param("clientId") Long clientId);
+
+    // InnoDB's sampled row count: free, but approximate
+    @Query(value = "SELECT COALESCE(MAX(TABLE_ROWS), 0) FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'users'", nativeQuery = true)
+    long estimateRowCount();
+
+    // rehash-on-login upgrade; runs on the hashing thread, outside any request transaction
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
\ No newline at end of file
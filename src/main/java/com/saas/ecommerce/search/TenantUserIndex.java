@@ -0,0 +1,287 @@
+package com.saas.ecommerce.search;
+
+import com.saas.ecommerce.model.dto.UserSummary;
+import com.saas.ecommerce.utils.ConcurrentLongLongMap;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One tenant's users, searchable by email, name and phone digits. Documents get dense int ids in
+ * insertion order, so every posting list is an ascending {@code int[]} that is appended to, never
+ * re-sorted. Queries of three or more characters intersect the trigram postings (smallest list
+ * first) and check each candidate against the actual fields. Shorter queries binary-search a sorted
+ * term array for prefixes. Deletes set a tombstone bit.
+ */
+final class TenantUserIndex {
+
+    private static final int MIN_GRAM = 3;
+    private static final int MERGE_PENDING_TERMS = 4096;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private UserSummary[] docs = new UserSummary[64];
+    private String[] emails = new String[64];
+    private String[] names = new String[64];
+    private String[] phones = new String[64];
+    private int docCount;
+    private final BitSet deleted = new BitSet();
+    private final ConcurrentLongLongMap docOfUser = new ConcurrentLongLongMap();
+
+    private final GramTable grams = new GramTable();
+
+    // prefix terms: a sorted run plus a small unsorted tail merged in once it grows
+    private String[] terms = new String[0];
+    private int[] termDocs = new int[0];
+    private final ArrayList<String> pendingTerms = new ArrayList<>();
+    private Postings pendingTermDocs = new Postings();
+
+    int size() {
+        return docCount - deleted.cardinality();
+    }
+
+    void add(UserSummary user) {
+        lock.writeLock().lock();
+        try {
+            if (docOfUser.get(user.id(), -1L) >= 0) return; // already indexed (load raced the event)
+            int doc = docCount++;
+            if (doc == docs.length) grow();
+            String email = lower(user.email());
+            String name = lower(user.name());
+            String phone = digits(user.phoneNumber());
+            docs[doc] = user;
+            emails[doc] = email;
+            names[doc] = name;
+            phones[doc] = phone;
+            docOfUser.put(user.id(), doc);
+
+            for (String field : new String[]{email, name, phone}) {
+                for (int i = 0; i + MIN_GRAM <= field.length(); i++) {
+                    Postings p = grams.getOrCreate(gram(field, i));
+                    // a gram repeated within the doc would be the list's last entry
+                    if (p.size == 0 || p.ids[p.size - 1] != doc) p.add(doc);
+                }
+            }
+            addTerm(email, doc);
+            for (String word : name.split("\\s+")) if (!word.isEmpty()) addTerm(word, doc);
+            if (!phone.isEmpty()) addTerm(phone, doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long userId) {
+        lock.writeLock().lock();
+        try {
+            long doc = docOfUser.get(userId, -1L);
+            if (doc < 0) return;
+            deleted.set((int) doc);
+            docs[(int) doc] = null;
+            docOfUser.remove(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<UserSummary> search(String query, int limit) {
+        String q = lower(query).trim();
+        if (q.isEmpty()) return List.of();
+        // digits may be part of an email or name ("jdoe2024") as well as a phone number; with
+        // separators they also match phone digits alone, whatever the formatting
+        String phone = q.matches("[0-9 +()\\-.]+") ? digits(q) : "";
+        lock.readLock().lock();
+        try {
+            List<UserSummary> hits = find(q, false, limit);
+            if (phone.isEmpty() || phone.equals(q) || hits.size() >= limit) return hits;
+            LinkedHashSet<UserSummary> merged = new LinkedHashSet<>(hits);
+            for (UserSummary u : find(phone, true, limit)) {
+                if (merged.size() >= limit) break;
+                merged.add(u);
+            }
+            return new ArrayList<>(merged);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<UserSummary> find(String q, boolean phoneOnly, int limit) {
+        return q.length() < MIN_GRAM ? prefix(q, limit) : substring(q, phoneOnly, limit);
+    }
+
+    private List<UserSummary> prefix(String q, int limit) {
+        LinkedHashSet<Integer> hits = new LinkedHashSet<>();
+        int i = lowerBound(terms, q);
+        for (; i < terms.length && hits.size() < limit && terms[i].startsWith(q); i++) {
+            if (!deleted.get(termDocs[i])) hits.add(termDocs[i]);
+        }
+        for (int p = 0; p < pendingTerms.size() && hits.size() < limit; p++) {
+            int doc = pendingTermDocs.ids[p];
+            if (pendingTerms.get(p).startsWith(q) && !deleted.get(doc)) hits.add(doc);
+        }
+        List<UserSummary> out = new ArrayList<>(hits.size());
+        for (int doc : hits) out.add(docs[doc]);
+        return out;
+    }
+
+    private List<UserSummary> substring(String q, boolean phone, int limit) {
+        Postings[] lists = new Postings[q.length() - MIN_GRAM + 1];
+        for (int i = 0; i < lists.length; i++) {
+            Postings p = grams.get(gram(q, i));
+            if (p == null) return List.of();
+            lists[i] = p;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+        Postings smallest = lists[0];
+        List<UserSummary> out = new ArrayList<>(Math.min(limit, smallest.size));
+        next:
+        for (int k = 0; k < smallest.size && out.size() < limit; k++) {
+            int doc = smallest.ids[k];
+            if (deleted.get(doc)) continue;
+            for (int l = 1; l < lists.length; l++) {
+                if (Arrays.binarySearch(lists[l].ids, 0, lists[l].size, doc) < 0) continue next;
+            }
+            // grams can co-occur without the query being contiguous: confirm on the text
+            boolean match = phone ? phones[doc].contains(q)
+                    : emails[doc].contains(q) || names[doc].contains(q) || phones[doc].contains(q);
+            if (match) out.add(docs[doc]);
+        }
+        return out;
+    }
+
+    private void addTerm(String term, int doc) {
+        pendingTerms.add(term);
+        pendingTermDocs.add(doc);
+        // tail grows with the run, so merging stays O(n log n) overall and prefix scans stay short
+        if (pendingTerms.size() >= Math.max(MERGE_PENDING_TERMS, terms.length >> 3)) mergeTerms();
+    }
+
+    /** Sorts any pending prefix terms into the run (after a bulk load). */
+    void compact() {
+        lock.writeLock().lock();
+        try {
+            mergeTerms();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Sorts the tail and merges it into the sorted run (dropping tombstoned docs); under the write lock. */
+    private void mergeTerms() {
+        int p = pendingTerms.size();
+        Integer[] order = new Integer[p];
+        for (int i = 0; i < p; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> pendingTerms.get(x).compareTo(pendingTerms.get(y)));
+        String[] merged = new String[terms.length + p];
+        int[] mergedDocs = new int[merged.length];
+        int i = 0, j = 0, n = 0;
+        while (i < terms.length || j < p) {
+            boolean takeRun = j == p || (i < terms.length && terms[i].compareTo(pendingTerms.get(order[j])) <= 0);
+            String term = takeRun ? terms[i] : pendingTerms.get(order[j]);
+            int doc = takeRun ? termDocs[i++] : pendingTermDocs.ids[order[j++]];
+            if (deleted.get(doc)) continue;
+            merged[n] = term;
+            mergedDocs[n++] = doc;
+        }
+        terms = n == merged.length ? merged : Arrays.copyOf(merged, n);
+        termDocs = n == mergedDocs.length ? mergedDocs : Arrays.copyOf(mergedDocs, n);
+        pendingTerms.clear();
+        pendingTermDocs = new Postings();
+    }
+
+    private void grow() {
+        int cap = docs.length * 2;
+        docs = Arrays.copyOf(docs, cap);
+        emails = Arrays.copyOf(emails, cap);
+        names = Arrays.copyOf(names, cap);
+        phones = Arrays.copyOf(phones, cap);
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Three UTF-16 units packed into one long key. */
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    private static String digits(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /** Open-addressing {@code gram -> postings} table; keys are never 0 (no NUL-only grams). */
+    private static final class GramTable {
+        private long[] keys = new long[1024];
+        private Postings[] values = new Postings[1024];
+        private int size;
+
+        Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+                if (keys[i] == 0) return null;
+            }
+        }
+
+        Postings getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            for (; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            keys[i] = key;
+            Postings p = values[i] = new Postings();
+            if (++size * 2 > keys.length) rehash();
+            return p;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == 0) continue;
+                int i = mix(oldKeys[j]) & mask;
+                while (keys[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+
+        private static int mix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            return (int) k;
+        }
+    }
+
+    /** Growable ascending int list. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.saas.ecommerce.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.saas.ecommerce.model.dto.UserSummary;
+import com.saas.ecommerce.repository.UserRepository;
+import com.saas.ecommerce.service.UserChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typeahead search over a tenant's users, served from memory. A tenant's index is built on its first
+ * search by paging through {@code idx_users_client_id}, then kept current from {@link UserChangedEvent}s.
+ * Events that arrive while an index is being built are buffered and replayed onto it before it is
+ * published, so a change committed mid-build is never lost. Events are node-local, so each index is
+ * also rebuilt after {@code max-age} to pick up changes made on other nodes. Indexes are evicted by
+ * total document count.
+ */
+@Service
+public class UserSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchService.class);
+    private static final int LOAD_PAGE = 1000;
+
+    private final UserRepository repository;
+    private final Cache<Long, TenantUserIndex> indexes;
+    /** Tenants whose index is being built, with the events received meanwhile. */
+    private final Map<Long, Build> building = new ConcurrentHashMap<>();
+    private final int maxResults;
+    private final Timer searchTimer;
+    private final Timer buildTimer;
+
+    public UserSearchService(UserRepository repository,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.user-search.max-indexed-users:2000000}") long maxIndexedUsers,
+                             @Value("${app.user-search.max-age:PT10M}") Duration maxAge,
+                             @Value("${app.user-search.max-results:50}") int maxResults) {
+        this.repository = repository;
+        this.maxResults = maxResults;
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxIndexedUsers)
+                .weigher((Long tenant, TenantUserIndex index) -> Math.max(1, index.size()))
+                .expireAfterWrite(maxAge)
+                .build();
+        this.searchTimer = Timer.builder("user_search.duration").register(meterRegistry);
+        this.buildTimer = Timer.builder("user_search.index.build").register(meterRegistry);
+        Gauge.builder("user_search.indexes", indexes, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    public List<UserSummary> search(long clientId, String query, Integer limit) {
+        int n = limit == null || limit <= 0 ? 20 : Math.min(limit, maxResults);
+        TenantUserIndex index = indexOf(clientId);
+        return searchTimer.record(() -> index.search(query, n));
+    }
+
+    private TenantUserIndex indexOf(long clientId) {
+        TenantUserIndex index = indexes.getIfPresent(clientId);
+        if (index != null) return index;
+        Build mine = new Build();
+        Build running = building.putIfAbsent(clientId, mine);
+        if (running != null) return running.result.join(); // concurrent searches share one build
+        try {
+            index = build(clientId);
+            synchronized (mine) {
+                for (UserChangedEvent event : mine.events) apply(index, event);
+                // published before events stop being buffered, so none falls in between
+                if (!mine.invalidated) indexes.put(clientId, index);
+                mine.done = true;
+            }
+            mine.result.complete(index);
+            return index;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(clientId, mine);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Build pending = building.get(event.clientId());
+        if (pending != null) {
+            synchronized (pending) {
+                if (!pending.done) {
+                    if (event.type() == UserChangedEvent.Type.BULK) pending.invalidated = true;
+                    else pending.events.add(event);
+                    return;
+                }
+            }
+        }
+        if (event.type() == UserChangedEvent.Type.BULK) {
+            indexes.invalidate(event.clientId()); // cheaper to rebuild on next search than to replay an import
+            return;
+        }
+        TenantUserIndex index = indexes.getIfPresent(event.clientId());
+        if (index != null) apply(index, event); // otherwise built from the table on first search
+    }
+
+    private static void apply(TenantUserIndex index, UserChangedEvent event) {
+        if (event.type() == UserChangedEvent.Type.CREATED) index.add(event.user());
+        else index.remove(event.userId());
+    }
+
+    private static final class Build {
+        final CompletableFuture<TenantUserIndex> result = new CompletableFuture<>();
+        final List<UserChangedEvent> events = new ArrayList<>();
+        boolean invalidated;
+        boolean done;
+    }
+
+    private TenantUserIndex build(long clientId) {
+        return buildTimer.record(() -> {
+            TenantUserIndex index = new TenantUserIndex();
+            long afterId = 0L;
+            List<UserSummary> page;
+            do {
+                page = repository.findPageByClientId(clientId, afterId, Limit.of(LOAD_PAGE));
+                for (UserSummary u : page) index.add(u);
+                if (!page.isEmpty()) afterId = page.get(page.size() - 1).id();
+            } while (page.size() == LOAD_PAGE);
+            index.compact();
+            logger.debug("Built user search index for tenant {}: {} users", clientId, index.size());
+            return index;
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.saas.ecommerce.security;
 
+import com.saas.ecommerce.context.RequestContext;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -7,6 +8,9 @@ public final class AuthContext {
     private AuthContext() {}
 
     public static AuthPrincipal principal() {
+        // the request context also reaches @Async and other wrapped tasks; the security context does not
+        RequestContext ctx = RequestContext.current();
+        if (ctx != null && ctx.principal() != null) return ctx.principal();
         Authentication a = SecurityContextHolder.getContext().getAuthentication();
         return (a != null && a.getPrincipal() instanceof AuthPrincipal p) ? p : null;
     }
@@ -0,0 +1,118 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.model.dto.AuthLoginDto;
+import com.saas.ecommerce.model.dto.AuthLoginResponse;
+import com.saas.ecommerce.model.entity.IdentityEntry;
+import com.saas.ecommerce.model.entity.RefreshToken;
+import com.saas.ecommerce.ratelimit.RateLimiterService;
+import com.saas.ecommerce.repository.ClientRepository;
+import com.saas.ecommerce.repository.SuperAdminRepository;
+import com.saas.ecommerce.repository.UserRepository;
+import com.saas.ecommerce.session.PrincipalKeys;
+import com.saas.ecommerce.session.SessionBinding;
+import com.saas.ecommerce.session.SessionManager;
+import com.saas.ecommerce.utils.ValidateInputs;
+import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * {@code /api/auth/login} for every principal kind. One indexed read on {@code identity_directory}
+ * yields the hash, ids and roles; tokens are minted from that row, and the principal tables are only
+ * referenced by id (refresh-token owner) or written on a hash upgrade.
+ */
+@Service
+public class AuthService {
+
+    private final IdentityDirectoryService directory;
+    private final PasswordHasher encoder;
+    private final JwtService jwtService;
+    private final SessionManager sessionManager;
+    private final RefreshTokenService refreshService;
+    private final ValidateInputs validateInputs;
+    private final RateLimiterService rateLimiter;
+    private final SuperAdminRepository superAdminRepository;
+    private final ClientRepository clientRepository;
+    private final UserRepository userRepository;
+
+    public AuthService(IdentityDirectoryService directory,
+                       PasswordHasher encoder,
+                       JwtService jwtService,
+                       SessionManager sessionManager,
+                       RefreshTokenService refreshService,
+                       ValidateInputs validateInputs,
+                       RateLimiterService rateLimiter,
+                       SuperAdminRepository superAdminRepository,
+                       ClientRepository clientRepository,
+                       UserRepository userRepository) {
+        this.directory = directory;
+        this.encoder = encoder;
+        this.jwtService = jwtService;
+        this.sessionManager = sessionManager;
+        this.refreshService = refreshService;
+        this.validateInputs = validateInputs;
+        this.rateLimiter = rateLimiter;
+        this.superAdminRepository = superAdminRepository;
+        this.clientRepository = clientRepository;
+        this.userRepository = userRepository;
+    }
+
+    public AuthLoginResponse login(AuthLoginDto dto) {
+        validateInputs.handleAuthLoginInput(dto);
+        // usually one row; a super admin and a client may share an email, so each hash is tried
+        List<IdentityEntry> candidates = directory.resolve(dto.email(), dto.apiKey());
+        // charged per candidate account, with the same key as that kind's own login endpoint
+        for (IdentityEntry entry : candidates) {
+            rateLimiter.checkLogin(entry.getKind(), entry.getTenantId(), dto.email());
+        }
+        for (IdentityEntry entry : candidates) {
+            if (encoder.matches(dto.password(), entry.getPasswordHash(), h -> upgradePassword(entry, h))) {
+                return issue(entry);
+            }
+        }
+        throw new CustomBusinessException(ErrorCode.FAILED_TO_LOGIN, HttpStatus.UNAUTHORIZED, "Invalid credentials");
+    }
+
+    private AuthLoginResponse issue(IdentityEntry entry) {
+        long id = entry.getPrincipalId();
+        String refreshToken = jwtService.generateRefreshToken();
+        SessionBinding session = sessionManager.start(entry.getEmail(), entry.getClientId(),
+                PrincipalKeys.of(entry.getKind(), id), refreshToken);
+
+        // same claim layout as the per-kind login endpoints
+        Object owner;
+        String access;
+        switch (entry.getKind()) {
+            case PrincipalKeys.SUPER_ADMIN -> {
+                owner = superAdminRepository.getReferenceById(id);
+                access = jwtService.generateAccessToken(entry.getEmail(), 0L, id, entry.getRoles(), session);
+            }
+            case PrincipalKeys.CLIENT -> {
+                owner = clientRepository.getReferenceById(id);
+                access = jwtService.generateAccessToken(entry.getEmail(), id, 0L, entry.getRoles(), session);
+            }
+            case PrincipalKeys.USER -> {
+                owner = userRepository.getReferenceById(id);
+                access = jwtService.generateAccessToken(entry.getEmail(), entry.getClientId(), id, entry.getRoles(), session);
+            }
+            default -> throw new IllegalStateException("Unknown principal kind " + entry.getKind());
+        }
+        RefreshToken refresh = refreshService.createRefreshToken(owner, session, refreshToken);
+        return new AuthLoginResponse(access, refresh.getToken(), entry.getRoles(), id, entry.getClientId(), entry.getEmail());
+    }
+
+    /** Hash upgrade from the hashing pool: principal table first, then the directory copy. */
+    private void upgradePassword(IdentityEntry entry, String hash) {
+        long id = entry.getPrincipalId();
+        switch (entry.getKind()) {
+            case PrincipalKeys.SUPER_ADMIN -> superAdminRepository.updatePassword(id, hash);
+            case PrincipalKeys.CLIENT -> clientRepository.updatePassword(id, hash);
+            case PrincipalKeys.USER -> userRepository.updatePassword(id, hash);
+            default -> { return; }
+        }
+        directory.passwordChanged(entry.getKind(), id, hash);
+    }
+}
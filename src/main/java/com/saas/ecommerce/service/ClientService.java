@@ -3,56 +3,74 @@ package com.saas.ecommerce.service;
 import com.saas.ecommerce.model.dto.ClientLoginResponse;
 import com.saas.ecommerce.model.dto.ClientRegistrationDto;
 import com.saas.ecommerce.model.dto.ClientRegistrationResponse;
+import com.saas.ecommerce.model.dto.ClientSummary;
+import com.saas.ecommerce.model.dto.CursorPage;
 import com.saas.ecommerce.model.entity.Client;
+import com.saas.ecommerce.model.entity.IdentityEntry;
 import com.saas.ecommerce.model.dto.ClientLoginDto;
+import com.saas.ecommerce.model.dto.UserSummary;
 import com.saas.ecommerce.model.entity.RefreshToken;
-import com.saas.ecommerce.model.entity.User;
+import com.saas.ecommerce.ratelimit.RateLimiterService;
 import com.saas.ecommerce.repository.ClientRepository;
-import com.saas.ecommerce.session.SessionStore;
+import com.saas.ecommerce.session.PrincipalKeys;
+import com.saas.ecommerce.session.SessionBinding;
+import com.saas.ecommerce.session.SessionManager;
 import com.saas.ecommerce.utils.Constant;
+import com.saas.ecommerce.utils.Pagination;
 import com.saas.ecommerce.utils.ValidateInputs;
 import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
 import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
+import com.saas.ecommerce.utils.globalExceptionHandller.ServiceBusyException;
+import jakarta.transaction.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class ClientService implements UserDetailsService {
 
     private final JwtService jwtService;
     private final UserService userService;
-    private final PasswordEncoder encoder;
-    private final SessionStore sessionStore;
+    private final PasswordHasher encoder;
+    private final SessionManager sessionManager;
     private final ClientRepository repository;
     private final ValidateInputs validateInputs;
     private final RefreshTokenService refreshService;
+    private final IdentityDirectoryService directory;
+    private final RateLimiterService rateLimiter;
+    private final Pagination pagination;
 
     public ClientService(ClientRepository repository,
-                         PasswordEncoder encoder,
+                         PasswordHasher encoder,
                          RefreshTokenService refreshService,
+                         IdentityDirectoryService directory,
+                         RateLimiterService rateLimiter,
                          JwtService jwtService,
                          ValidateInputs validateInputs,
-                         SessionStore sessionStore,
-                         UserService userService) {
+                         SessionManager sessionManager,
+                         UserService userService,
+                         Pagination pagination) {
         this.repository = repository;
         this.encoder = encoder;
         this.refreshService = refreshService;
+        this.directory = directory;
+        this.rateLimiter = rateLimiter;
         this.jwtService = jwtService;
         this.validateInputs = validateInputs;
-        this.sessionStore = sessionStore;
+        this.sessionManager = sessionManager;
         this.userService = userService;
+        this.pagination = pagination;
     }
 
+    // the principal row and its directory entry commit together, so a failed directory insert leaves no
+    // principal that could not log in (and a retry does not hit CONFLICT)
+    @Transactional
     public ClientRegistrationResponse register(ClientRegistrationDto dto) {
         try {
             validateInputs.handleClientRegistrationInput(dto);
@@ -66,6 +84,7 @@ public class ClientService implements UserDetailsService {
             client.setPhoneNumber(dto.phoneNumber());
             client.setPassword(encoder.encode(dto.password()));
             client = repository.save(client);
+            directory.add(client);
             return new ClientRegistrationResponse(
                     client.getName(),
                     client.getEmail(),
@@ -74,6 +93,8 @@ public class ClientService implements UserDetailsService {
                     client.getCreatedAt().toString(),
                     client.isActive()
             );
+        } catch (ServiceBusyException e) {
+            throw e;
         }catch (Exception e){
             throw new CustomBusinessException(ErrorCode.FAILED_TO_REGISTER, HttpStatus.BAD_REQUEST,e);
         }
@@ -82,22 +103,19 @@ public class ClientService implements UserDetailsService {
     public ClientLoginResponse login(ClientLoginDto dto) {
         try {
             validateInputs.handleClientLoginInput(dto);
+            rateLimiter.checkLogin(PrincipalKeys.CLIENT, IdentityEntry.PLATFORM, dto.email());
             Client client = (Client) loadUserByUsername(dto.email()); // Use loadUserByUsername for consistency
 
-            if (!encoder.matches(dto.password(), client.getPassword())) {
+            if (!encoder.matches(dto.password(), client.getPassword(), h -> upgradePassword(client, h))) {
                 throw new CustomBusinessException(ErrorCode.FAILED_TO_LOGIN, HttpStatus.BAD_REQUEST, "Password is not matching");
             }
 
-            // Rotate session ID to invalidate old access tokens
-            String sid = UUID.randomUUID().toString();
-            sessionStore.setSid(client.getEmail(), sid, Duration.ofDays(30));
+            // Start a new session (next epoch) to invalidate old access tokens
+            String refreshToken = jwtService.generateRefreshToken();
+            SessionBinding session = sessionManager.start(client.getEmail(), client.getId(), PrincipalKeys.client(client.getId()), refreshToken);
 
-            RefreshToken refresh = refreshService.createRefreshToken(client, sid);
-            String access = jwtService.generateAccessToken(client.getEmail(), client.getId(), 0L, Constant.ROLE_CLIENT, sid);
-
-            client.setAccessToken(access);
-            client.setToken(refresh.getToken());
-            client = repository.save(client);
+            RefreshToken refresh = refreshService.createRefreshToken(client, session, refreshToken);
+            String access = jwtService.generateAccessToken(client.getEmail(), client.getId(), 0L, Constant.ROLE_CLIENT, session);
 
             return new ClientLoginResponse(
                     access,
@@ -109,6 +127,8 @@ public class ClientService implements UserDetailsService {
                     client.getCreatedAt().toString(),
                     client.isActive()
             );
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             throw new CustomBusinessException(ErrorCode.FAILED_TO_LOGIN, HttpStatus.BAD_REQUEST, e);
         }
@@ -120,22 +140,34 @@ public class ClientService implements UserDetailsService {
         return repository.findByEmail(email).orElseThrow(() -> new UsernameNotFoundException("Client not found with email: " + email));
     }
 
-    @Cacheable("clients")
     public Client findById(Long id) {
         return repository.findById(id).orElse(null);
     }
 
-    public List<Client> getAllClients() {
-        return repository.findAll();
+    public ClientSummary getClientSummary(Long id) {
+        return repository.findSummaryById(id).orElse(null);
     }
 
-    public List<User> fetchUsers(Long clientId) {
-        return userService.fetchUsers(clientId);
+    public CursorPage<ClientSummary> getAllClients(String cursor, Integer size, boolean estimateTotal) {
+        int pageSize = pagination.pageSize(size);
+        long afterId = pagination.decode("clients", cursor, 0L)[0];
+        List<ClientSummary> rows = repository.findPage(afterId, pagination.fetchLimit(pageSize));
+        return CursorPage.of(rows, pageSize, c -> pagination.encode("clients", c.id()),
+                estimateTotal ? repository.estimateRowCount() : null);
     }
 
-    public User fetchUsersById(Long clientId, Long id) {
-        return userService.fetchUserByClientIdAndUserId(clientId, id);
+    public CursorPage<UserSummary> fetchUsers(Long clientId, String cursor, Integer size, boolean estimateTotal) {
+        return userService.fetchUsers(clientId, cursor, size, estimateTotal);
     }
 
+    public UserSummary fetchUsersById(Long clientId, Long id) {
+        return userService.fetchUserByClientIdAndUserId(clientId, id);
+    }
 
+    /** Stores a re-hash produced at the current BCrypt cost (runs on the hashing pool). */
+    private void upgradePassword(Client client, String hash) {
+        client.setPassword(hash);
+        repository.updatePassword(client.getId(), hash);
+        directory.passwordChanged(PrincipalKeys.CLIENT, client.getId(), hash);
+    }
 }
@@ -0,0 +1,71 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.model.entity.Client;
+import com.saas.ecommerce.model.entity.IdentityEntry;
+import com.saas.ecommerce.model.entity.SuperAdmin;
+import com.saas.ecommerce.model.entity.User;
+import com.saas.ecommerce.repository.IdentityDirectoryRepository;
+import com.saas.ecommerce.session.PrincipalKeys;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps {@code identity_directory} in step with the three principal tables. Each write follows the
+ * principal write (joining the caller's transaction where there is one); existing principals were
+ * backfilled once by a migration in {@code config/SchemaMigrations}. Platform logins also check the
+ * owning client or super admin row, so a directory row that falls behind cannot outlive it.
+ */
+@Service
+public class IdentityDirectoryService {
+
+    private final IdentityDirectoryRepository repository;
+
+    public IdentityDirectoryService(IdentityDirectoryRepository repository) {
+        this.repository = repository;
+    }
+
+    /** Login candidates: platform principals without an api key, that tenant's users with one. */
+    public List<IdentityEntry> resolve(String email, String apiKey) {
+        return (apiKey == null || apiKey.isBlank())
+                ? repository.findPlatformLogin(email)
+                : repository.findTenantLogin(email, apiKey);
+    }
+
+    public void add(SuperAdmin superAdmin) {
+        save(PrincipalKeys.SUPER_ADMIN, superAdmin.getId(), IdentityEntry.PLATFORM, superAdmin.getEmail(),
+                null, superAdmin.getRoles(), superAdmin.getPassword(), true);
+    }
+
+    public void add(Client client) {
+        save(PrincipalKeys.CLIENT, client.getId(), IdentityEntry.PLATFORM, client.getEmail(),
+                client.getId(), client.getRoles(), client.getPassword(), client.isActive());
+    }
+
+    public void add(User user) {
+        save(PrincipalKeys.USER, user.getId(), user.getClientId(), user.getEmail(),
+                user.getClientId(), user.getRoles(), user.getPassword(), user.isActive());
+    }
+
+    public void passwordChanged(int kind, long principalId, String passwordHash) {
+        repository.updatePassword(kind, principalId, passwordHash);
+    }
+
+    public void remove(int kind, long principalId) {
+        repository.deletePrincipal(kind, principalId);
+    }
+
+    private void save(int kind, long principalId, long tenantId, String email, Long clientId,
+                      String roles, String passwordHash, boolean active) {
+        IdentityEntry entry = new IdentityEntry();
+        entry.setKind(kind);
+        entry.setPrincipalId(principalId);
+        entry.setTenantId(tenantId);
+        entry.setEmail(email);
+        entry.setClientId(clientId);
+        entry.setRoles(roles);
+        entry.setPasswordHash(passwordHash);
+        entry.setActive(active);
+        repository.save(entry);
+    }
+}
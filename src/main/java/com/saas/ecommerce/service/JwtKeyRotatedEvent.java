@@ -0,0 +1,6 @@
+package com.saas.ecommerce.service;
+
+import java.time.Instant;
+
+/** Published by {@link KeyGeneratorService} after the signing key has been replaced. */
+public record JwtKeyRotatedEvent(String keyId, Instant rotatedAt) {}
@@ -0,0 +1,178 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.utils.Digests;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Immutable set of prebuilt signing keys indexed by {@code kid}. A new instance is built on every
+ * rotation and swapped in atomically by {@link KeyGeneratorService}; readers never lock.
+ *
+ * <p>Key material is stored as a string (Redis/file). HS256 material is the raw shared secret, as
+ * before. Asymmetric material is {@code ALG:<pkcs8 private, base64>:<x509 public, base64>}; the
+ * private part is left empty once a key is retired, since old keys only ever verify.
+ */
+public final class JwtKeyring {
+
+    public static final String HS256 = "HS256";
+    public static final String ES256 = "ES256";
+    public static final String EDDSA = "EdDSA";
+
+    /** One key generation: signing/verification keys and a parser pinned to the verification key. */
+    public record Entry(String kid, String algorithm, Key signingKey, Key verificationKey,
+                        JwtParser parser, Instant retiredAt) {
+
+        boolean isUsableAt(Instant now, long oldKeyTtlSeconds) {
+            return retiredAt == null || retiredAt.plusSeconds(oldKeyTtlSeconds).isAfter(now);
+        }
+
+        public boolean isAsymmetric() {
+            return verificationKey instanceof PublicKey;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        JwtBuilder sign(JwtBuilder builder) {
+            if (signingKey == null) throw new IllegalStateException("Key " + kid + " is verification-only");
+            SecureDigestAlgorithm alg = (SecureDigestAlgorithm) Jwts.SIG.get().forKey(algorithm);
+            return builder.header().keyId(kid).and().signWith(signingKey, alg);
+        }
+
+        Entry retire(Instant at) {
+            return new Entry(kid, algorithm, isAsymmetric() ? null : signingKey, verificationKey, parser, at);
+        }
+    }
+
+    private final Entry current;
+    private final Map<String, Entry> byKid;
+
+    private JwtKeyring(Entry current, Map<String, Entry> byKid) {
+        this.current = current;
+        this.byKid = byKid;
+    }
+
+    public static JwtKeyring of(String currentMaterial) {
+        Entry entry = entry(currentMaterial, null);
+        return new JwtKeyring(entry, Map.of(entry.kid(), entry));
+    }
+
+    /** Returns a new ring whose current key is {@code newMaterial}; the previous current key is retired now. */
+    public JwtKeyring rotate(String newMaterial, Instant now, long oldKeyTtlSeconds) {
+        Entry next = entry(newMaterial, null);
+        Map<String, Entry> keys = new HashMap<>();
+        keys.put(next.kid(), next);
+        keys.putIfAbsent(current.kid(), current.retire(now));
+        for (Entry e : byKid.values()) {
+            if (e != current && e.isUsableAt(now, oldKeyTtlSeconds)) keys.putIfAbsent(e.kid(), e);
+        }
+        return new JwtKeyring(next, Map.copyOf(keys));
+    }
+
+    /** Adds previously retired material (e.g. loaded from Redis at startup) without changing the current key. */
+    public JwtKeyring withRetired(Collection<String> materials, Instant retiredAt) {
+        Map<String, Entry> keys = new HashMap<>(byKid);
+        for (String material : materials) {
+            Entry e = entry(material, retiredAt);
+            keys.putIfAbsent(e.kid(), e);
+        }
+        return new JwtKeyring(current, Map.copyOf(keys));
+    }
+
+    public Entry current() {
+        return current;
+    }
+
+    /** O(1) lookup; null if the kid is unknown to this ring. */
+    public Entry find(String kid) {
+        return kid == null ? null : byKid.get(kid);
+    }
+
+    /** Every non-current entry, used only for legacy tokens issued before kids were stamped. */
+    public List<Entry> retired() {
+        return byKid.values().stream().filter(e -> e != current).toList();
+    }
+
+    /** Public JWKs for the current and still-accepted asymmetric keys; HMAC keys are never published. */
+    public List<PublicJwk<?>> publicJwks(Instant now, long oldKeyTtlSeconds) {
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        for (Entry e : byKid.values()) {
+            if (e.isAsymmetric() && e.isUsableAt(now, oldKeyTtlSeconds)) {
+                jwks.add(Jwks.builder().key((PublicKey) e.verificationKey())
+                        .id(e.kid())
+                        .algorithm(e.algorithm())
+                        .publicKeyUse("sig")
+                        .build());
+            }
+        }
+        return jwks;
+    }
+
+    // ---- key material ----
+
+    public static String algorithmOf(String material) {
+        int sep = material.indexOf(':');
+        if (sep > 0) {
+            String alg = material.substring(0, sep);
+            if (ES256.equals(alg) || EDDSA.equals(alg)) return alg;
+        }
+        return HS256;
+    }
+
+    /** Fresh asymmetric key pair serialized as material. */
+    public static String generateKeyPairMaterial(String algorithm) {
+        KeyPair pair = switch (algorithm) {
+            case ES256 -> Jwts.SIG.ES256.keyPair().build();
+            case EDDSA -> Jwks.CRV.Ed25519.keyPair().build();
+            default -> throw new IllegalArgumentException("Not an asymmetric signing algorithm: " + algorithm);
+        };
+        Base64.Encoder b64 = Base64.getEncoder();
+        return algorithm + ":" + b64.encodeToString(pair.getPrivate().getEncoded())
+                + ":" + b64.encodeToString(pair.getPublic().getEncoded());
+    }
+
+    /** Material safe to keep around after rotation: asymmetric keys lose their private half. */
+    public static String retiredMaterial(String material) {
+        if (HS256.equals(algorithmOf(material))) return material;
+        String[] parts = material.split(":", -1);
+        return parts[0] + "::" + parts[2];
+    }
+
+    /** Stable id so every node derives the same kid for the same key: RFC 7638 thumbprint for public keys. */
+    public static String kidFor(String material) {
+        return entry(material, null).kid();
+    }
+
+    private static Entry entry(String material, Instant retiredAt) {
+        String algorithm = algorithmOf(material);
+        if (HS256.equals(algorithm)) {
+            SecretKey key = Keys.hmacShaKeyFor(material.getBytes(StandardCharsets.UTF_8));
+            String kid = Digests.sha256Base64Url("kid:" + material).substring(0, 16);
+            return new Entry(kid, HS256, key, key, Jwts.parser().verifyWith(key).build(), retiredAt);
+        }
+        String[] parts = material.split(":", -1);
+        try {
+            KeyFactory kf = KeyFactory.getInstance(ES256.equals(algorithm) ? "EC" : "Ed25519");
+            Base64.Decoder b64 = Base64.getDecoder();
+            PublicKey publicKey = kf.generatePublic(new X509EncodedKeySpec(b64.decode(parts[2])));
+            PrivateKey privateKey = parts[1].isEmpty() ? null
+                    : kf.generatePrivate(new PKCS8EncodedKeySpec(b64.decode(parts[1])));
+            String kid = Jwks.builder().key(publicKey).idFromThumbprint().build().getId();
+            JwtParser parser = Jwts.parser().verifyWith(publicKey).build();
+            return new Entry(kid, algorithm, privateKey, publicKey, parser, retiredAt);
+        } catch (GeneralSecurityException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " key material", e);
+        }
+    }
+}
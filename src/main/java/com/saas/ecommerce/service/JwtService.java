@@ -1,21 +1,31 @@
 package com.saas.ecommerce.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.saas.ecommerce.session.SessionBinding;
 import com.saas.ecommerce.utils.Constant;
+import com.saas.ecommerce.utils.Digests;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 @Service
@@ -29,13 +39,70 @@ public class JwtService {
     @Autowired
     private KeyGeneratorService keyGeneratorService;
 
-    private final Map<String, Claims> claimsCache = new ConcurrentHashMap<>();
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    /**
+     * Verified claims keyed by SHA-256 of the token. Entries expire at the token's own {@code exp}
+     * and the whole cache is dropped on key rotation, so a hit is always as good as a fresh verify.
+     */
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        kidParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            return keyGeneratorService.getKeyring().current().verificationKey(); // legacy token
+                        }
+                        JwtKeyring.Entry entry = keyGeneratorService.resolveKey(kid);
+                        if (entry == null) throw new JwtException("Unknown signing key id: " + kid);
+                        return entry.verificationKey();
+                    }
+                })
+                .build();
+
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        Date exp = claims.getExpiration();
+                        if (exp == null) return 0L;
+                        long ttlMillis = exp.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, ttlMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
-    private SecretKey getCurrentSigningKey() {
-        return Keys.hmacShaKeyFor(keyGeneratorService.getCurrentJwtSecret().getBytes(StandardCharsets.UTF_8));
+    @EventListener
+    public void onKeyRotated(JwtKeyRotatedEvent event) {
+        verifiedClaims.invalidateAll();
+        logger.info("Signing key rotated; verified-claims cache cleared");
     }
 
+    /** Built once; the locator picks the key by the token's kid from the current in-memory keyring. */
+    private JwtParser kidParser;
+
     public String generateAccessToken(String subject, Long clientId, Long userId, String roles, String sid) {
+        return generateAccessToken(subject, clientId, userId, roles, SessionBinding.ofSid(sid));
+    }
+
+    public String generateAccessToken(String subject, Long clientId, Long userId, String roles, SessionBinding session) {
         if (subject == null || subject.isEmpty()) {
             throw new IllegalArgumentException("Subject cannot be null or empty");
         }
@@ -55,14 +122,18 @@ public class JwtService {
         }
 
         claims.put("roles", roles); // keep as string for compatibility ("ADMIN,USER" etc.)
-        claims.put("sid",   sid);
-
-        return Jwts.builder()
-                .claims(claims)
-                .subject(subject)
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + accessExpiry * 1000))
-                .signWith(getCurrentSigningKey(), Jwts.SIG.HS256)
+        claims.put("sid",   session.sid());
+        if (session.hasEpoch()) {
+            claims.put("pk",    session.principalKey());
+            claims.put("epoch", session.epoch());
+        }
+
+        JwtKeyring.Entry signing = keyGeneratorService.getKeyring().current();
+        return signing.sign(Jwts.builder()
+                        .claims(claims)
+                        .subject(subject)
+                        .issuedAt(new Date())
+                        .expiration(new Date(System.currentTimeMillis() + accessExpiry * 1000)))
                 .compact();
     }
 
@@ -70,33 +141,16 @@ public class JwtService {
         return UUID.randomUUID().toString();
     }
 
+    /**
+     * Single verification pipeline: signature + expiry are checked once per distinct token,
+     * after which the verified claims are served from the bounded cache.
+     */
     public Claims extractAllClaims(String token) {
         if (token == null || token.isEmpty()) {
             logger.error("Token is null or empty");
             throw new JwtException("Invalid token: token is null or empty");
         }
-
-        try {
-            return Jwts.parser()
-                    .verifyWith(getCurrentSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (JwtException e) {
-            logger.debug("Current key failed; trying old keys");
-            for (String oldSecret : keyGeneratorService.getOldJwtSecrets()) {
-                try {
-                    SecretKey oldKey = Keys.hmacShaKeyFor(oldSecret.getBytes(StandardCharsets.UTF_8));
-                    return Jwts.parser()
-                            .verifyWith(oldKey)
-                            .build()
-                            .parseSignedClaims(token)
-                            .getPayload();
-                } catch (JwtException ignored) { }
-            }
-            logger.error("Token validation failed: {}", e.getMessage());
-            throw new JwtException("Invalid token: no valid key found", e);
-        }
+        return verifiedClaims.get(Digests.sha256Base64Url(token), k -> parseClaims(token));
     }
 
     public <T> T extractClaim(String token, String claimName, Class<T> type) {
@@ -105,7 +159,7 @@ public class JwtService {
             throw new JwtException("Invalid token: token is null or empty");
         }
 
-        Claims claims = claimsCache.computeIfAbsent(token, this::parseClaims);
+        Claims claims = extractAllClaims(token);
         Object claimValue = claims.get(claimName);
         if (claimValue == null) {
             logger.error("Claim {} not found in token", claimName);
@@ -129,29 +183,35 @@ public class JwtService {
             throw new JwtException("Invalid token: token is null or empty");
         }
         try {
-            return Jwts.parser()
-                    .verifyWith(getCurrentSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (JwtException e) {
-            for (String oldSecret : keyGeneratorService.getOldJwtSecrets()) {
-                try {
-                    SecretKey oldKey = Keys.hmacShaKeyFor(oldSecret.getBytes(StandardCharsets.UTF_8));
-                    return Jwts.parser()
-                            .verifyWith(oldKey)
-                            .build()
-                            .parseSignedClaims(token)
-                            .getPayload();
-                } catch (JwtException ignored) { }
+            return kidParser.parseSignedClaims(token).getPayload();
+        } catch (SignatureException e) {
+            // Tokens issued before kids were stamped: try retired keys from memory, never Redis.
+            if (!hasKeyId(token)) {
+                for (JwtKeyring.Entry old : keyGeneratorService.getKeyring().retired()) {
+                    try {
+                        return old.parser().parseSignedClaims(token).getPayload();
+                    } catch (JwtException ignored) { }
+                }
             }
+            logger.error("Token validation failed: {}", e.getMessage());
             throw new JwtException("Invalid token: no valid key found", e);
         }
     }
 
+    private static boolean hasKeyId(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) return false;
+        try {
+            String header = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+            return header.contains("\"kid\"");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     public boolean isTokenValid(String token) {
         try {
-            parseClaims(token);
+            extractAllClaims(token);
             return true;
         } catch (JwtException e) {
             logger.error("Token validation error: {}", e.getMessage());
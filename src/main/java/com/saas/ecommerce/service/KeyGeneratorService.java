@@ -1,9 +1,11 @@
 package com.saas.ecommerce.service;
 
+import io.jsonwebtoken.security.PublicJwk;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.lang.Nullable;           // <-- add this
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,8 +16,10 @@ import javax.crypto.SecretKey;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -26,6 +30,7 @@ public class KeyGeneratorService {
     private static final String SECRET_KEY_PATH = "jwt-secret.txt";
     private static final String REDIS_KEY = "jwt:secret";
     private static final String REDIS_OLD_KEYS = "jwt:old_secrets";
+    private static final long KEYRING_RELOAD_INTERVAL_MS = 10_000;
 
     @Value("${jwt.rotation.enabled:false}")
     private boolean rotationEnabled;
@@ -36,34 +41,73 @@ public class KeyGeneratorService {
     @Value("${jwt.rotation.old-key-ttl:86400}")
     private long oldKeyTtl;
 
+    /** HS256 (shared secret, default), ES256 or EdDSA (Ed25519 key pair, published via JWKS). */
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String signingAlgorithm = JwtKeyring.HS256;
+
     private final RedisTemplate<String, String> redisTemplate; // may be null in dev
-    private String currentKey;
+    private final ApplicationEventPublisher events;
+    private volatile String currentKey;
+    private volatile JwtKeyring keyring;
+    private long lastKeyringReload;
 
     // 👇 Make RedisTemplate optional so dev profile can start without Redis
-    public KeyGeneratorService(@Nullable RedisTemplate<String, String> redisTemplate) {
+    public KeyGeneratorService(@Nullable RedisTemplate<String, String> redisTemplate,
+                               ApplicationEventPublisher events) {
         this.redisTemplate = redisTemplate;
+        this.events = events;
     }
 
     @PostConstruct
     public void init() {
-        if (jwtSecret != null && !jwtSecret.isBlank()) {
+        if (!Set.of(JwtKeyring.HS256, JwtKeyring.ES256, JwtKeyring.EDDSA).contains(signingAlgorithm)) {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + signingAlgorithm);
+        }
+        if (usesStaticSecret()) {
             currentKey = jwtSecret;
+            keyring = JwtKeyring.of(currentKey);
             logger.info("JWT secret provided; rotation/storage disabled.");
             return;
         }
 
         String storedKey = loadKey();
         if (storedKey == null || storedKey.isEmpty()) {
-            logger.info("No JWT secret found in Redis/file, generating a new one...");
-            currentKey = generateJwtSecret();
+            logger.info("No JWT signing key found in Redis/file, generating a new {} key...", signingAlgorithm);
+            currentKey = generateKeyMaterial();
             saveKey(currentKey);
-            logger.info("New JWT secret generated and persisted.");
+            keyring = JwtKeyring.of(currentKey);
+            logger.info("New JWT signing key generated and persisted.");
+        } else if (!signingAlgorithm.equals(JwtKeyring.algorithmOf(storedKey))) {
+            // algorithm switched: start signing with a fresh key, keep verifying tokens from the stored one
+            logger.info("Signing algorithm changed to {}; retiring stored {} key.", signingAlgorithm,
+                    JwtKeyring.algorithmOf(storedKey));
+            currentKey = generateKeyMaterial();
+            saveKey(currentKey);
+            keyring = JwtKeyring.of(storedKey).rotate(currentKey, Instant.now(), oldKeyTtl);
         } else {
             currentKey = storedKey;
-            logger.info("JWT secret loaded from Redis/file.");
+            keyring = JwtKeyring.of(currentKey);
+            logger.info("JWT signing key loaded from Redis/file.");
+        }
+        // old keys are read from Redis once here; verification never goes back to Redis per token
+        keyring = keyring.withRetired(getOldJwtSecrets(), Instant.now());
+        if (jwtSecret != null && !jwtSecret.isBlank()) {
+            logger.warn("jwt.secret is ignored for signing when jwt.signing.algorithm={}; it is still accepted for verification.", signingAlgorithm);
+            keyring = keyring.withRetired(Set.of(jwtSecret), Instant.now());
         }
     }
 
+    /** A configured HS256 jwt.secret pins the key: no storage, no rotation. */
+    private boolean usesStaticSecret() {
+        return jwtSecret != null && !jwtSecret.isBlank() && JwtKeyring.HS256.equals(signingAlgorithm);
+    }
+
+    private String generateKeyMaterial() {
+        return JwtKeyring.HS256.equals(signingAlgorithm)
+                ? generateJwtSecret()
+                : JwtKeyring.generateKeyPairMaterial(signingAlgorithm);
+    }
+
     private String generateJwtSecret() {
         try {
             KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
@@ -125,7 +169,7 @@ public class KeyGeneratorService {
 
     @Scheduled(cron = "${jwt.rotation.cron:0 0 0 1 */6 ?}")
     public void rotateKey() {
-        if (jwtSecret != null && !jwtSecret.isBlank()) {
+        if (usesStaticSecret()) {
             logger.debug("jwt.secret configured and rotation disabled — skipping.");
             return;
         }
@@ -138,7 +182,7 @@ public class KeyGeneratorService {
         if (currentKey != null) {
             try {
                 if (redisTemplate != null) {
-                    redisTemplate.opsForSet().add(REDIS_OLD_KEYS, currentKey);
+                    redisTemplate.opsForSet().add(REDIS_OLD_KEYS, JwtKeyring.retiredMaterial(currentKey));
                     redisTemplate.expire(REDIS_OLD_KEYS, oldKeyTtl, TimeUnit.SECONDS);
                     logger.info("Stored old key in Redis with TTL: {} seconds", oldKeyTtl);
                 }
@@ -147,15 +191,61 @@ public class KeyGeneratorService {
             }
         }
 
-        currentKey = generateJwtSecret();
-        saveKey(currentKey);
-        logger.info("New JWT secret key generated and saved.");
+        String newKey = generateKeyMaterial();
+        saveKey(newKey);
+        currentKey = newKey;
+        keyring = keyring.rotate(newKey, Instant.now(), oldKeyTtl);
+        logger.info("New JWT secret key generated and saved (kid={}).", keyring.current().kid());
+        events.publishEvent(new JwtKeyRotatedEvent(keyring.current().kid(), Instant.now()));
     }
 
     public String getCurrentJwtSecret() {
         return currentKey;
     }
 
+    public JwtKeyring getKeyring() {
+        return keyring;
+    }
+
+    public String getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    /** Public keys (current + not yet expired retired ones) for the JWKS endpoint; empty in HS256 mode. */
+    public List<PublicJwk<?>> getPublicJwks() {
+        return keyring.publicJwks(Instant.now(), oldKeyTtl);
+    }
+
+    /**
+     * Key for a token's {@code kid}. An unknown kid usually means another node rotated first, so the
+     * ring is reloaded from Redis/file at most once per {@link #KEYRING_RELOAD_INTERVAL_MS}.
+     */
+    @Nullable
+    public JwtKeyring.Entry resolveKey(String kid) {
+        JwtKeyring.Entry entry = keyring.find(kid);
+        if (entry != null) {
+            return entry.isUsableAt(Instant.now(), oldKeyTtl) ? entry : null;
+        }
+        if (usesStaticSecret()) return null;
+        return reloadKeyring() ? keyring.find(kid) : null;
+    }
+
+    private synchronized boolean reloadKeyring() {
+        long now = System.currentTimeMillis();
+        if (now - lastKeyringReload < KEYRING_RELOAD_INTERVAL_MS) return false;
+        lastKeyringReload = now;
+
+        String stored = loadKey();
+        JwtKeyring ring = keyring;
+        if (stored != null && !stored.isBlank() && !JwtKeyring.kidFor(stored).equals(ring.current().kid())) {
+            ring = ring.rotate(stored, Instant.now(), oldKeyTtl);
+            currentKey = stored;
+            logger.info("Adopted JWT secret rotated by another node (kid={})", ring.current().kid());
+        }
+        keyring = ring.withRetired(getOldJwtSecrets(), Instant.now());
+        return true;
+    }
+
     public Set<String> getOldJwtSecrets() {
         try {
             if (redisTemplate != null) {
@@ -0,0 +1,168 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.context.RequestContext;
+import com.saas.ecommerce.utils.globalExceptionHandller.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs password hashing on a small dedicated pool instead of request threads. When the pool and its
+ * queue are full, callers get an immediate 503 ({@link ServiceBusyException}) rather than piling up,
+ * so a credential-stuffing burst cannot starve ordinary authenticated traffic.
+ */
+@Service
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMs;
+    private final ExecutorService bulkExecutor;
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer bulkEncodeTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder encoder,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.password-hashing.threads:0}") int threads,
+                          @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.password-hashing.wait-timeout-ms:5000}") long waitTimeoutMs,
+                          @Value("${app.password-hashing.bulk-threads:0}") int bulkThreads) {
+        this.encoder = encoder;
+        this.waitTimeoutMs = waitTimeoutMs;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // imports hash on their own threads, at the same cost as interactive hashes
+        AtomicInteger bulkSeq = new AtomicInteger();
+        this.bulkExecutor = Executors.newFixedThreadPool(
+                bulkThreads > 0 ? bulkThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-bulk-" + bulkSeq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.bulkEncodeTimer = Timer.builder("password_hash.duration").tag("op", "encode_bulk").register(meterRegistry);
+        this.encodeTimer = Timer.builder("password_hash.duration").tag("op", "encode").register(meterRegistry);
+        this.matchTimer = Timer.builder("password_hash.duration").tag("op", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("password_hash.rejected")
+                .description("Hash requests refused because the pool was saturated").register(meterRegistry);
+        Gauge.builder("password_hash.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password_hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        int strength = strengthOf(encoder.encode("probe")); // once: scraping must not pay for a hash
+        Gauge.builder("password_hash.strength", () -> strength).register(meterRegistry);
+        logger.info("Password hashing pool: {} threads, queue {}, strength {}", poolSize, queueCapacity, strength);
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> encoder.encode(rawPassword))));
+    }
+
+    /**
+     * Hashes a batch in parallel on the bulk pool, keeping the interactive pool free for logins.
+     * Results are in input order and use the same cost as {@link #encode}: imported users who never
+     * log in would otherwise keep a weaker hash for good.
+     */
+    public CompletableFuture<List<String>> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> parts = new ArrayList<>(rawPasswords.size());
+        for (String raw : rawPasswords) {
+            parts.add(CompletableFuture.supplyAsync(() -> bulkEncodeTimer.record(() -> encoder.encode(raw)), bulkExecutor));
+        }
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .thenApply(done -> parts.stream().map(CompletableFuture::join).toList());
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return matches(rawPassword, encodedPassword, null);
+    }
+
+    /**
+     * Verifies the password; on success, if the stored hash is weaker than the current cost, it is
+     * re-hashed in the background and handed to {@code onUpgrade} (best effort, skipped when busy).
+     */
+    public boolean matches(String rawPassword, String encodedPassword, Consumer<String> onUpgrade) {
+        if (encodedPassword == null) return false;
+        boolean ok = await(submit(() -> matchTimer.record(() -> encoder.matches(rawPassword, encodedPassword))));
+        if (ok && onUpgrade != null && encoder.upgradeEncoding(encodedPassword)) {
+            try {
+                executor.execute(RequestContext.wrap(() -> {
+                    try {
+                        onUpgrade.accept(encodeTimer.record(() -> encoder.encode(rawPassword)));
+                    } catch (Exception e) {
+                        logger.warn("Password hash upgrade failed: {}", e.getMessage());
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Hashing pool busy; hash upgrade deferred to a later login");
+            }
+        }
+        return ok;
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException();
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /** Cost factor from a BCrypt hash ({@code $2a$12$...}); -1 if not BCrypt. */
+    private static int strengthOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') return -1;
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        bulkExecutor.shutdown();
+    }
+}
@@ -0,0 +1,142 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.utils.JobLease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired and revoked refresh tokens in small id batches. Each batch is its own autocommit
+ * statement driven by an index (expiry_date / revoked), with a pause in between, so row locks are
+ * short and replicas keep up. A {@link JobLease} keeps the purge to one node at a time; it is renewed
+ * before each batch, and no pool connection is held across batches or pauses.
+ */
+@Service
+public class RefreshTokenPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurgeService.class);
+    private static final String LEASE_NAME = "refresh_tokens_purge";
+    private static final Duration LEASE_TTL = Duration.ofMinutes(2);
+
+    private static final String SELECT_EXPIRED =
+            "SELECT id FROM refresh_tokens WHERE expiry_date < ? ORDER BY expiry_date LIMIT ?";
+    private static final String SELECT_REVOKED =
+            "SELECT id FROM refresh_tokens WHERE revoked = TRUE LIMIT ?";
+    private static final String COUNT_BACKLOG =
+            "SELECT (SELECT COUNT(*) FROM refresh_tokens WHERE expiry_date < ?) "
+                    + "+ (SELECT COUNT(*) FROM refresh_tokens WHERE revoked = TRUE AND expiry_date >= ?)";
+
+    private final JdbcTemplate jdbc;
+    private final JobLease lease;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration pause;
+    private final Duration retention;
+
+    private final Counter purgedExpired;
+    private final Counter purgedRevoked;
+    private final Timer runTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public RefreshTokenPurgeService(JdbcTemplate jdbc,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.refresh-token.purge.enabled:true}") boolean enabled,
+                                    @Value("${app.refresh-token.purge.batch-size:1000}") int batchSize,
+                                    @Value("${app.refresh-token.purge.max-batches-per-run:500}") int maxBatchesPerRun,
+                                    @Value("${app.refresh-token.purge.pause-ms:50}") long pauseMs,
+                                    @Value("${app.refresh-token.purge.retention-hours:24}") long retentionHours) {
+        this.jdbc = jdbc;
+        this.lease = new JobLease(jdbc, LEASE_NAME, LEASE_TTL);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pause = Duration.ofMillis(pauseMs);
+        this.retention = Duration.ofHours(retentionHours);
+        this.purgedExpired = Counter.builder("refresh_tokens.purged")
+                .tag("reason", "expired").description("Refresh tokens deleted by the purge").register(meterRegistry);
+        this.purgedRevoked = Counter.builder("refresh_tokens.purged")
+                .tag("reason", "revoked").description("Refresh tokens deleted by the purge").register(meterRegistry);
+        this.runTimer = Timer.builder("refresh_tokens.purge.duration").register(meterRegistry);
+        Gauge.builder("refresh_tokens.purge.backlog", backlog, AtomicLong::get)
+                .description("Purgeable rows left after the last run").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-token.purge.interval-ms:600000}",
+            initialDelayString = "${app.refresh-token.purge.initial-delay-ms:60000}")
+    public void purge() {
+        if (!enabled) return;
+        try {
+            if (!lease.tryAcquire()) {
+                logger.debug("Refresh token purge running on another node — skipping.");
+                return;
+            }
+            try {
+                runTimer.record(this::purgeWithLease);
+            } finally {
+                lease.release();
+            }
+        } catch (Exception e) {
+            logger.warn("Refresh token purge failed: {}", e.getMessage());
+        }
+    }
+
+    private void purgeWithLease() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        int batches = 0;
+        long expired = 0;
+        long revoked = 0;
+        while (batches < maxBatchesPerRun && lease.renew()) {
+            List<Long> ids = jdbc.queryForList(SELECT_EXPIRED, Long.class, cutoff, batchSize);
+            if (ids.isEmpty()) break;
+            expired += delete(ids);
+            batches++;
+            if (!pause()) break;
+        }
+        while (batches < maxBatchesPerRun && lease.renew()) {
+            List<Long> ids = jdbc.queryForList(SELECT_REVOKED, Long.class, batchSize);
+            if (ids.isEmpty()) break;
+            revoked += delete(ids);
+            batches++;
+            if (!pause()) break;
+        }
+        purgedExpired.increment(expired);
+        purgedRevoked.increment(revoked);
+        Long left = jdbc.queryForObject(COUNT_BACKLOG, Long.class, cutoff, cutoff);
+        backlog.set(left == null ? 0L : left);
+        if (expired + revoked > 0) {
+            logger.info("Purged {} expired and {} revoked refresh tokens in {} batches (backlog {})",
+                    expired, revoked, batches, backlog.get());
+        }
+    }
+
+    /** Primary-key delete: locks exactly the selected rows, nothing in between. */
+    private int delete(List<Long> ids) {
+        String sql = "DELETE FROM refresh_tokens WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+        return jdbc.update(sql, ids.toArray());
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
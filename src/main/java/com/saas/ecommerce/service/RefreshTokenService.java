@@ -4,18 +4,28 @@ import com.saas.ecommerce.model.dto.TokenResponse;
 import com.saas.ecommerce.model.entity.*;
 import com.saas.ecommerce.repository.*;
 import com.saas.ecommerce.session.SessionPolicy;
-import com.saas.ecommerce.session.SessionStore;
+import com.saas.ecommerce.session.PrincipalKeys;
+import com.saas.ecommerce.session.RedisAuthScripts;
+import com.saas.ecommerce.session.SessionBinding;
+import com.saas.ecommerce.session.SessionManager;
 import com.saas.ecommerce.utils.Constant;
+import com.saas.ecommerce.utils.Digests;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.lang.Nullable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class RefreshTokenService {
@@ -24,37 +34,35 @@ public class RefreshTokenService {
     private long refreshExpiry;
 
     private final JwtService jwtService;
-    private final SessionStore sessionStore;
+    private final SessionManager sessionManager;
     private final SessionPolicy sessionPolicy;
     private final RefreshTokenRepository repository;
-    private final ClientRepository clientRepository;
-    private final UserRepository userRepository;
-    private final SuperAdminRepository superAdminRepository;
-    private final RedisTemplate<String, String> redisTemplate; // maybe null in dev
+    private final RedisAuthScripts redisScripts; // null without Redis (dev)
+    private final TransactionTemplate transactionTemplate;
+
+    /** Rotations in progress on this node, keyed by SHA-256 of the presented token. */
+    private final Map<String, CompletableFuture<TokenResponse>> inFlight = new ConcurrentHashMap<>();
 
     public RefreshTokenService(RefreshTokenRepository repository,
                                JwtService jwtService,
-                               SessionStore sessionStore,
+                               SessionManager sessionManager,
                                SessionPolicy sessionPolicy,
-                               ClientRepository clientRepository,
-                               UserRepository userRepository,
-                               SuperAdminRepository superAdminRepository,
-                               @Nullable RedisTemplate<String, String> redisTemplate) {
+                               @Nullable RedisAuthScripts redisScripts,
+                               PlatformTransactionManager transactionManager) {
         this.repository = repository;
         this.jwtService = jwtService;
-        this.sessionStore = sessionStore;
+        this.sessionManager = sessionManager;
         this.sessionPolicy = sessionPolicy;
-        this.clientRepository = clientRepository;
-        this.userRepository = userRepository;
-        this.superAdminRepository = superAdminRepository;
-        this.redisTemplate = redisTemplate;
+        this.redisScripts = redisScripts;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Create or update a refresh token for the given entity, reusing an existing non-revoked, non-expired token if available.
+     * {@code tokenValue} is generated by the caller so the session start can register it in Redis up front.
      */
     @Transactional
-    public RefreshToken createRefreshToken(Object entity, String sid) {
+    public RefreshToken createRefreshToken(Object entity, SessionBinding session, String tokenValue) {
         RefreshToken token;
         Optional<RefreshToken> existingToken = Optional.empty();
 
@@ -70,16 +78,18 @@ public class RefreshTokenService {
         if (existingToken.isPresent()) {
             // Reuse existing token
             token = existingToken.get();
-            token.setToken(jwtService.generateRefreshToken());
+            token.setToken(tokenValue);
             token.setExpiryDate(LocalDateTime.now().plus(refreshExpiry, ChronoUnit.SECONDS));
-            token.setSid(sid);
+            token.setSid(session.sid());
+            token.setEpoch(session.hasEpoch() ? session.epoch() : null);
         } else {
             // Create new token
             token = new RefreshToken();
-            token.setToken(jwtService.generateRefreshToken());
+            token.setToken(tokenValue);
             token.setExpiryDate(LocalDateTime.now().plus(refreshExpiry, ChronoUnit.SECONDS));
             token.setRevoked(false);
-            token.setSid(sid);
+            token.setSid(session.sid());
+            token.setEpoch(session.hasEpoch() ? session.epoch() : null);
             if (entity instanceof Client client) {
                 token.setClient(client);
             } else if (entity instanceof User user) {
@@ -92,40 +102,100 @@ public class RefreshTokenService {
         return repository.save(token);
     }
 
-    /** Best-effort async revoke (DB + Redis blacklist). */
+    /** Best-effort async revoke (DB + Redis blacklist, one script call). */
     @Async
     @Transactional
     public void revoke(String refreshToken) {
-        Optional<RefreshToken> opt = repository.findByToken(refreshToken);
+        Optional<RefreshToken> opt = repository.findByTokenHash(Digests.sha256(refreshToken));
         opt.ifPresent(t -> {
             t.setRevoked(true);
             repository.save(t);
 
-            if (redisTemplate != null) {
-                long ttl = Math.max(0, ChronoUnit.SECONDS.between(LocalDateTime.now(), t.getExpiryDate()));
-                try {
-                    redisTemplate.opsForValue().set("blacklist:" + refreshToken, "revoked", ttl);
-                } catch (Exception ignored) { /* do not fail request if Redis is down */ }
+            if (redisScripts != null) {
+                redisScripts.revoke(refreshToken, Duration.between(LocalDateTime.now(), t.getExpiryDate()));
             }
         });
     }
 
-    /** Rotate refresh token & issue new access token (sid must match active session), updating the entity. */
-    @Transactional
+    /**
+     * Rotate refresh token & issue new access token (session must still be current). Concurrent calls
+     * with the same token on this node share one rotation while it is in flight; once it has finished,
+     * the old token is rotated and fails like any other.
+     */
     public TokenResponse refresh(String presentedRefreshToken) {
-        // Redis blacklist (optional)
-        if (redisTemplate != null) {
-            try {
-                if (redisTemplate.opsForValue().get("blacklist:" + presentedRefreshToken) != null) {
-                    throw new RuntimeException("Revoked token");
+        String key = Digests.sha256Base64Url(presentedRefreshToken);
+        CompletableFuture<TokenResponse> mine = new CompletableFuture<>();
+        CompletableFuture<TokenResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) return await(running);
+        try {
+            rejectFromMirror(presentedRefreshToken);
+            Rotation rotation = transactionTemplate.execute(status -> rotate(presentedRefreshToken));
+            TokenResponse response = mirrorRotation(presentedRefreshToken, rotation);
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static TokenResponse await(CompletableFuture<TokenResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /** Fast reject from the Redis mirror (blacklisted, rotated, stale session) without touching MySQL. */
+    private void rejectFromMirror(String presentedRefreshToken) {
+        if (redisScripts == null) return;
+        RedisAuthScripts.RefreshMirror mirror = redisScripts.lookup(presentedRefreshToken);
+        switch (mirror.status()) {
+            case REVOKED -> throw new RuntimeException("Revoked token");
+            case ROTATED -> throw new RuntimeException("Invalid token");
+            case ACTIVE -> {
+                if (mirror.epoch() != 0L
+                        && sessionPolicy.enforceFor(mirror.clientId(), mirror.username())
+                        && !sessionManager.isCurrent(mirror.principalKey(), mirror.epoch())) {
+                    throw new RuntimeException("Session invalid or logged in elsewhere");
                 }
-            } catch (Exception ignored) { /* ignore Redis errors */ }
+            }
+            case UNKNOWN -> { } // not mirrored (older token, Redis flushed): MySQL decides
+        }
+    }
+
+    /** A committed rotation and what the Redis mirror needs to follow it. */
+    private record Rotation(TokenResponse response, SessionBinding session, Long clientId, String subject) {}
+
+    /**
+     * Moves the Redis registration to the new token once the rotation has committed, so a rolled-back
+     * rotation never leaves a tombstone on a token MySQL still accepts. If the old token was revoked
+     * in between (the revoke found it in Redis but no longer in MySQL), the new one is revoked too.
+     */
+    private TokenResponse mirrorRotation(String presentedRefreshToken, Rotation rotation) {
+        if (redisScripts == null) return rotation.response();
+        String newRefresh = rotation.response().refreshToken();
+        if (!redisScripts.rotate(presentedRefreshToken, newRefresh, rotation.session(), rotation.clientId(),
+                rotation.subject(), Duration.ofSeconds(refreshExpiry))) {
+            transactionTemplate.executeWithoutResult(status -> repository.findByTokenHash(Digests.sha256(newRefresh))
+                    .ifPresent(t -> t.setRevoked(true)));
+            throw new RuntimeException("Revoked token");
         }
+        return rotation.response();
+    }
 
-        RefreshToken t = repository.findByToken(presentedRefreshToken)
+    /** One read, one conditional UPDATE, one signature. */
+    private Rotation rotate(String presentedRefreshToken) {
+        byte[] presentedHash = Digests.sha256(presentedRefreshToken);
+        RefreshToken t = repository.findByTokenHash(presentedHash)
                 .orElseThrow(() -> new RuntimeException("Invalid token"));
 
-        if (t.isRevoked() || t.getExpiryDate().isBefore(LocalDateTime.now())) {
+        LocalDateTime now = LocalDateTime.now();
+        if (t.isRevoked() || t.getExpiryDate().isBefore(now)) {
             throw new RuntimeException("Expired token");
         }
 
@@ -134,78 +204,54 @@ public class RefreshTokenService {
         Long clientId;
         Long userId;
         String roles;
+        long principalKey;
         if (t.getClient() != null) {
             Client c = t.getClient();
             subject = c.getEmail();
+            principalKey = PrincipalKeys.client(c.getId());
             clientId = c.getId();
             userId = null; // No userId for Client
             roles = Constant.ROLE_CLIENT;
-            // Update Client entity
-            c.setToken(t.getToken());
-            c.setAccessToken(jwtService.generateAccessToken(subject, clientId, userId, roles, t.getSid()));
-            clientRepository.save(c);
         } else if (t.getUser() != null) {
             User u = t.getUser();
             subject = u.getUsername();
+            principalKey = PrincipalKeys.user(u.getId());
             userId = u.getId();
             clientId = u.getClientId();
             roles = u.getRoles();
-            // Update User entity
-            u.setToken(t.getToken());
-            u.setAccessToken(jwtService.generateAccessToken(subject, clientId, userId, roles, t.getSid()));
-            userRepository.save(u);
         }
         else if (t.getSuperAdmin() != null) {
             SuperAdmin sa = t.getSuperAdmin();
             subject = sa.getUsername();
+            principalKey = PrincipalKeys.superAdmin(sa.getId());
             userId = sa.getId();
             clientId = null; // No clientId for SuperAdmin
             roles = Constant.ROLE_SUPER_ADMIN;
-            // Update SuperAdmin entity
-            sa.setToken(t.getToken());
-            sa.setAccessToken(jwtService.generateAccessToken(subject, clientId, userId, roles, t.getSid()));
-            superAdminRepository.save(sa);
         } else {
             throw new RuntimeException("Token has no owner");
         }
 
-        // Enforce session binding: refresh token's sid must equal current server-side sid
-        boolean enforce = sessionPolicy.enforceFor(clientId, subject);
-        String expectedSid = sessionStore.getSid(subject);
-        if (enforce) {
-            if (expectedSid == null || t.getSid() == null || !t.getSid().equals(expectedSid)) {
+        // Enforce session binding: refresh token's epoch (or legacy sid) must still be current
+        SessionBinding session = t.getEpoch() != null
+                ? new SessionBinding(t.getSid(), principalKey, t.getEpoch())
+                : SessionBinding.ofSid(t.getSid());
+        if (sessionPolicy.enforceFor(clientId, subject)) {
+            boolean current = session.hasEpoch()
+                    ? sessionManager.isCurrent(principalKey, session.epoch())
+                    : sessionManager.isCurrent(subject, session.sid());
+            if (!current) {
                 throw new RuntimeException("Session invalid or logged in elsewhere");
             }
         }
 
-        // Rotate refresh token (keep same sid for this session)
+        // Rotate refresh token (same sid/epoch): compare-and-set on the old value, so exactly one racer wins
         String newRefresh = jwtService.generateRefreshToken();
-        t.setToken(newRefresh);
-        t.setExpiryDate(LocalDateTime.now().plus(refreshExpiry, ChronoUnit.SECONDS));
-        t.setSid(expectedSid); // stays same
-        repository.save(t);
-
-        // Issue new access token bound to the same sid
-        String newAccess = jwtService.generateAccessToken(subject, clientId, userId, roles, expectedSid);
-
-        // Update entity with new tokens
-        if (t.getClient() != null) {
-            Client c = t.getClient();
-            c.setAccessToken(newAccess);
-            c.setToken(newRefresh);
-            clientRepository.save(c);
-        } else if (t.getUser() != null) {
-            User u = t.getUser();
-            u.setAccessToken(newAccess);
-            u.setToken(newRefresh);
-            userRepository.save(u);
+        if (repository.rotate(presentedHash, Digests.sha256(newRefresh), now.plusSeconds(refreshExpiry), now) == 0) {
+            throw new RuntimeException("Invalid token");
         }
-        else if (t.getSuperAdmin() != null) {
-            SuperAdmin sa = t.getSuperAdmin();
-            sa.setAccessToken(newAccess);
-            sa.setToken(newRefresh);
-            superAdminRepository.save(sa);
-        }
-        return new TokenResponse(newAccess, newRefresh);
+
+        // Issue new access token bound to the same session
+        String newAccess = jwtService.generateAccessToken(subject, clientId, userId, roles, session);
+        return new Rotation(new TokenResponse(newAccess, newRefresh), session, clientId, subject);
     }
-}
\ No newline at end of file
+}
@@ -2,61 +2,76 @@ package com.saas.ecommerce.service;
 
 import com.saas.ecommerce.model.dto.*;
 import com.saas.ecommerce.model.entity.Client;
+import com.saas.ecommerce.model.entity.IdentityEntry;
 import com.saas.ecommerce.model.entity.RefreshToken;
 import com.saas.ecommerce.model.entity.SuperAdmin;
 import com.saas.ecommerce.model.entity.User;
+import com.saas.ecommerce.ratelimit.RateLimiterService;
 import com.saas.ecommerce.repository.ClientRepository;
 import com.saas.ecommerce.repository.SuperAdminRepository;
 import com.saas.ecommerce.repository.UserRepository;
-import com.saas.ecommerce.session.SessionStore;
+import com.saas.ecommerce.session.PrincipalKeys;
+import com.saas.ecommerce.session.SessionBinding;
+import com.saas.ecommerce.session.SessionManager;
 import com.saas.ecommerce.utils.Constant;
 import com.saas.ecommerce.utils.ValidateInputs;
 import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
 import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
+import com.saas.ecommerce.utils.globalExceptionHandller.ServiceBusyException;
+import jakarta.transaction.Transactional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Collections;
-import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class SuperAdminService implements UserDetailsService {
 
     private final JwtService jwtService;
-    private final PasswordEncoder encoder;
-    private final SessionStore sessionStore;
+    private final PasswordHasher encoder;
+    private final SessionManager sessionManager;
     private final SuperAdminRepository repository;
     private final ClientRepository clientRepository;
     private final UserRepository userRepository;
     private final ValidateInputs validateInputs;
     private final RefreshTokenService refreshService;
+    private final IdentityDirectoryService directory;
+    private final RateLimiterService rateLimiter;
+    private final UserService userService;
+    private final ClientService clientService;
 
     public SuperAdminService(SuperAdminRepository repository,
-                             PasswordEncoder encoder,
+                             PasswordHasher encoder,
                              RefreshTokenService refreshService,
+                             IdentityDirectoryService directory,
+                             RateLimiterService rateLimiter,
                              JwtService jwtService,
                              ValidateInputs validateInputs,
-                             SessionStore sessionStore,
+                             SessionManager sessionManager,
                              ClientRepository clientRepository,
-                             UserRepository userRepository) {
+                             UserRepository userRepository,
+                             UserService userService,
+                             ClientService clientService) {
         this.repository = repository;
         this.encoder = encoder;
         this.refreshService = refreshService;
+        this.directory = directory;
+        this.rateLimiter = rateLimiter;
         this.jwtService = jwtService;
         this.validateInputs = validateInputs;
-        this.sessionStore = sessionStore;
+        this.sessionManager = sessionManager;
         this.clientRepository = clientRepository;
         this.userRepository = userRepository;
+        this.userService = userService;
+        this.clientService = clientService;
     }
 
+    // with its directory entry, or not at all
+    @Transactional
     public SuperAdminRegistrationResponse register(SuperAdminRegistrationDto dto) {
         try {
             validateInputs.handleSuperAdminRegistrationInput(dto);
@@ -70,12 +85,15 @@ public class SuperAdminService implements UserDetailsService {
             superAdmin.setPhoneNumber(dto.phoneNumber());
             superAdmin.setPassword(encoder.encode(dto.password()));
             superAdmin = repository.save(superAdmin);
+            directory.add(superAdmin);
             return new SuperAdminRegistrationResponse(
                     superAdmin.getName(),
                     superAdmin.getEmail(),
                     superAdmin.getPhoneNumber(),
                     superAdmin.getCreatedAt().toString()
             );
+        } catch (ServiceBusyException e) {
+            throw e;
         }catch (Exception e){
             throw new CustomBusinessException(ErrorCode.FAILED_TO_REGISTER, HttpStatus.BAD_REQUEST,e);
         }
@@ -84,29 +102,29 @@ public class SuperAdminService implements UserDetailsService {
     public SuperAdminLoginResponse login(SuperAdminLoginDto dto) {
         try {
             validateInputs.handleSuperAdminLoginInput(dto);
+            rateLimiter.checkLogin(PrincipalKeys.SUPER_ADMIN, IdentityEntry.PLATFORM, dto.email());
             SuperAdmin superAdmin = (SuperAdmin) loadUserByUsername(dto.email()); // Use loadUserByUsername for consistency
 
-            if (!encoder.matches(dto.password(), superAdmin.getPassword())) {
+            if (!encoder.matches(dto.password(), superAdmin.getPassword(), h -> upgradePassword(superAdmin, h))) {
                 throw new CustomBusinessException(ErrorCode.FAILED_TO_LOGIN, HttpStatus.BAD_REQUEST, "Password is not matching");
             }
 
-            // Rotate session ID to invalidate old access tokens
-            String sid = UUID.randomUUID().toString();
-            sessionStore.setSid(superAdmin.getEmail(), sid, Duration.ofDays(30));
+            // Start a new session (next epoch) to invalidate old access tokens
+            String refreshToken = jwtService.generateRefreshToken();
+            SessionBinding session = sessionManager.start(superAdmin.getEmail(), null, PrincipalKeys.superAdmin(superAdmin.getId()), refreshToken);
 
-            RefreshToken refresh = refreshService.createRefreshToken(superAdmin, sid);
-            String access = jwtService.generateAccessToken(superAdmin.getEmail(), 0L, superAdmin.getId(), Constant.ROLE_SUPER_ADMIN, sid);
-            superAdmin.setAccessToken(access);
-            superAdmin.setToken(refresh.getToken());
-            superAdmin = repository.save(superAdmin);
+            RefreshToken refresh = refreshService.createRefreshToken(superAdmin, session, refreshToken);
+            String access = jwtService.generateAccessToken(superAdmin.getEmail(), 0L, superAdmin.getId(), Constant.ROLE_SUPER_ADMIN, session);
             return new SuperAdminLoginResponse(
-                    superAdmin.getToken(),
-                    superAdmin.getAccessToken(),
+                    refresh.getToken(),
+                    access,
                     superAdmin.getName(),
                     superAdmin.getEmail(),
                     superAdmin.getPhoneNumber(),
                     superAdmin.getCreatedAt().toString()
             );
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             throw new CustomBusinessException(ErrorCode.FAILED_TO_LOGIN, HttpStatus.BAD_REQUEST, e);
         }
@@ -123,20 +141,28 @@ public class SuperAdminService implements UserDetailsService {
         return repository.findById(id).orElse(null);
     }
 
-    @Cacheable("clients")
     public Client fetchClientById(Long id) {
         return clientRepository.findById(id).orElse(null);
     }
 
-    public List<Client> fetchAllClients() {
-        return clientRepository.findAll();
+    public CursorPage<ClientSummary> fetchAllClients(String cursor, Integer size, boolean estimateTotal) {
+        return clientService.getAllClients(cursor, size, estimateTotal);
     }
 
-    public List<User> getAllUsers() {return userRepository.findAll();}
+    public CursorPage<UserSummary> getAllUsers(String cursor, Integer size, boolean estimateTotal) {
+        return userService.fetchAllUsersPage(cursor, size, estimateTotal);
+    }
 
-    public List<User> getUsersByClientId(Long clientId) {return userRepository.findByClientId(clientId).orElse(Collections.emptyList());}
+    public CursorPage<UserSummary> getUsersByClientId(Long clientId, String cursor, Integer size, boolean estimateTotal) {
+        return userService.fetchTenantUsersPage(clientId, cursor, size, estimateTotal);
+    }
 
     public User fetchUserById(Long id) {return userRepository.findById(id).orElse(null);}
 
-
+    /** Stores a re-hash produced at the current BCrypt cost (runs on the hashing pool). */
+    private void upgradePassword(SuperAdmin superAdmin, String hash) {
+        superAdmin.setPassword(hash);
+        repository.updatePassword(superAdmin.getId(), hash);
+        directory.passwordChanged(PrincipalKeys.SUPER_ADMIN, superAdmin.getId(), hash);
+    }
 }
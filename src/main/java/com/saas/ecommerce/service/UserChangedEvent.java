@@ -0,0 +1,24 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.model.dto.UserSummary;
+
+/**
+ * Published after a tenant's users change. {@code user} is set for {@link Type#CREATED},
+ * {@code userId} for {@link Type#DELETED}; {@link Type#BULK} (imports) only names the tenant.
+ */
+public record UserChangedEvent(Type type, long clientId, Long userId, UserSummary user) {
+
+    public enum Type { CREATED, DELETED, BULK }
+
+    public static UserChangedEvent created(UserSummary user) {
+        return new UserChangedEvent(Type.CREATED, user.clientId(), user.id(), user);
+    }
+
+    public static UserChangedEvent deleted(long clientId, long userId) {
+        return new UserChangedEvent(Type.DELETED, clientId, userId, null);
+    }
+
+    public static UserChangedEvent bulk(long clientId) {
+        return new UserChangedEvent(Type.BULK, clientId, null, null);
+    }
+}
@@ -0,0 +1,229 @@
+package com.saas.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.saas.ecommerce.model.dto.UserSummary;
+import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams users straight from a forward-only JDBC result set to the response, one row at a time,
+ * so memory stays constant whatever the tenant size. If the client goes away the next write fails,
+ * the running statement is cancelled and the connection is handed back.
+ */
+@Service
+public class UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return value == null || value.isBlank() ? NDJSON : valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new CustomBusinessException(ErrorCode.INVALID_EXPORT_FORMAT, HttpStatus.BAD_REQUEST);
+            }
+        }
+    }
+
+    private static final String SELECT =
+            "SELECT id, client_id, name, email, phone_number, gender, dob, roles, is_active, created_at FROM users";
+    private static final String CSV_HEADER = "id,clientId,name,email,phoneNumber,gender,dob,roles,active,createdAt\n";
+
+    private final JdbcTemplate jdbc;
+    private final ObjectWriter rowWriter;
+    private final int fetchSize;
+    private final int flushEvery;
+
+    public UserExportService(JdbcTemplate jdbc,
+                             ObjectMapper objectMapper,
+                             // Integer.MIN_VALUE = MySQL row-by-row streaming; a positive size needs useCursorFetch=true
+                             @Value("${app.export.fetch-size:-2147483648}") int fetchSize,
+                             @Value("${app.export.flush-every-rows:1000}") int flushEvery) {
+        this.jdbc = jdbc;
+        // built once: every row goes through the same resolved serializer
+        this.rowWriter = objectMapper.writerFor(UserSummary.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.fetchSize = fetchSize;
+        this.flushEvery = flushEvery;
+    }
+
+    /** Writes the matching users, ordered by (client_id, id), and returns the row count. */
+    public long export(OutputStream out, Format format, Long clientId, LocalDateTime createdFrom, LocalDateTime createdTo)
+            throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> args = new ArrayList<>(3);
+        String glue = " WHERE ";
+        if (clientId != null) { sql.append(glue).append("client_id = ?"); args.add(clientId); glue = " AND "; }
+        if (createdFrom != null) { sql.append(glue).append("created_at >= ?"); args.add(Timestamp.valueOf(createdFrom)); glue = " AND "; }
+        if (createdTo != null) { sql.append(glue).append("created_at < ?"); args.add(Timestamp.valueOf(createdTo)); }
+        sql.append(" ORDER BY client_id, id");
+
+        try (RowSink sink = format == Format.CSV ? new CsvSink(out) : new NdjsonSink(out, rowWriter)) {
+            Long rows = jdbc.execute(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+                return ps;
+            }, (PreparedStatement ps) -> stream(ps, sink));
+            logger.info("Exported {} users (tenant {}, format {})", rows, clientId, format);
+            return rows == null ? 0 : rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long stream(PreparedStatement ps, RowSink sink) throws SQLException {
+        long count = 0;
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                sink.write(toSummary(rs));
+                if (++count % flushEvery == 0) sink.flush();
+            }
+        } catch (IOException e) {
+            // client disconnected: stop the server-side scan instead of draining the rest of the stream
+            try {
+                ps.cancel();
+            } catch (SQLException ignored) {
+                // the statement is closed next either way
+            }
+            logger.info("User export aborted after {} rows: {}", count, e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    private static UserSummary toSummary(ResultSet rs) throws SQLException {
+        long clientId = rs.getLong("client_id");
+        Long tenant = rs.wasNull() ? null : clientId;
+        Timestamp created = rs.getTimestamp("created_at");
+        return new UserSummary(
+                rs.getLong("id"),
+                tenant,
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("phone_number"),
+                rs.getString("gender"),
+                rs.getString("dob"),
+                rs.getString("roles"),
+                rs.getBoolean("is_active"),
+                created == null ? null : created.toLocalDateTime());
+    }
+
+    private interface RowSink extends Closeable {
+        void write(UserSummary row) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class NdjsonSink implements RowSink {
+        private final OutputStream out;
+        private final SequenceWriter writer;
+        private boolean empty = true;
+
+        NdjsonSink(OutputStream out, ObjectWriter rowWriter) throws IOException {
+            this.out = out;
+            this.writer = rowWriter.writeValues(out);
+        }
+
+        @Override
+        public void write(UserSummary row) throws IOException {
+            writer.write(row);
+            empty = false;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            if (!empty) out.write('\n');
+            out.flush();
+        }
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final Writer out;
+
+        CsvSink(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.out.write(CSV_HEADER);
+        }
+
+        @Override
+        public void write(UserSummary row) throws IOException {
+            out.write(String.valueOf(row.id()));
+            out.write(',');
+            if (row.clientId() != null) out.write(String.valueOf(row.clientId()));
+            cell(row.name());
+            cell(row.email());
+            cell(row.phoneNumber());
+            cell(row.gender());
+            cell(row.dob());
+            cell(row.roles());
+            out.write(',');
+            out.write(row.active() ? "true" : "false");
+            cell(row.createdAt() == null ? null : row.createdAt().toString());
+            out.write('\n');
+        }
+
+        private void cell(String value) throws IOException {
+            out.write(',');
+            if (value == null) return;
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.saas.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.saas.ecommerce.model.dto.UserDto;
+import com.saas.ecommerce.model.dto.UserImportError;
+import com.saas.ecommerce.model.dto.UserImportReport;
+import com.saas.ecommerce.session.PrincipalKeys;
+import com.saas.ecommerce.tenant.TenantVersions;
+import com.saas.ecommerce.utils.ValidateInputs;
+import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk user onboarding for one tenant. The body is read as a stream in chunks. Each chunk is
+ * validated, de-duplicated against the import and the table with one {@code IN} query, hashed in
+ * parallel on the bulk hashing pool, and written with one JDBC batch plus one set-based
+ * {@code identity_directory} insert. Chunk N+1 is read and hashed while chunk N is being written.
+ * Every chunk commits on its own, so a failure part-way keeps the rows already reported imported.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    public enum Format { CSV, JSON }
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (email, name, phone_number, gender, dob, roles, password, client_id, is_active, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?) ON DUPLICATE KEY UPDATE id = id";
+    // same mapping as the identity_directory backfill in SchemaMigrations, restricted to the chunk just written
+    private static final String SYNC_DIRECTORY =
+            "INSERT INTO identity_directory (tenant_id, email, kind, principal_id, client_id, roles, password_hash, active) " +
+            "SELECT client_id, email, " + PrincipalKeys.USER + ", id, client_id, roles, password, is_active FROM users " +
+            "WHERE client_id = :clientId AND email IN (:emails) " +
+            "ON DUPLICATE KEY UPDATE tenant_id = VALUES(tenant_id), email = VALUES(email), client_id = VALUES(client_id), " +
+            "roles = VALUES(roles), password_hash = VALUES(password_hash), active = VALUES(active)";
+    // batch update counts cannot tell an insert from a lost ON DUPLICATE KEY race once the driver
+    // rewrites the batch (SUCCESS_NO_INFO), so the outcome is read back: a row is ours if it holds our hash
+    private static final String SELECT_WRITTEN =
+            "SELECT email, client_id, password FROM users WHERE email IN (:emails)";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final PasswordHasher hasher;
+    private final ValidateInputs validateInputs;
+    private final ApplicationEventPublisher events;
+    private final TenantVersions versions;
+    private final ObjectReader rowReader;
+    private final int chunkSize;
+    private final long maxRows;
+    private final int maxErrors;
+
+    private final Counter importedRows;
+    private final Counter invalidRows;
+    private final Counter duplicateRows;
+    private final Timer chunkTimer;
+    private final AtomicInteger running = new AtomicInteger();
+
+    public UserImportService(NamedParameterJdbcTemplate jdbc,
+                             TransactionTemplate tx,
+                             PasswordHasher hasher,
+                             ValidateInputs validateInputs,
+                             ApplicationEventPublisher events,
+                             TenantVersions versions,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.user-import.chunk-size:500}") int chunkSize,
+                             @Value("${app.user-import.max-rows:500000}") long maxRows,
+                             @Value("${app.user-import.max-errors:1000}") int maxErrors) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.hasher = hasher;
+        this.validateInputs = validateInputs;
+        this.events = events;
+        this.versions = versions;
+        this.rowReader = objectMapper.readerFor(UserDto.class);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        this.maxErrors = maxErrors;
+        this.importedRows = Counter.builder("user_import.rows").tag("outcome", "imported").register(meterRegistry);
+        this.invalidRows = Counter.builder("user_import.rows").tag("outcome", "invalid").register(meterRegistry);
+        this.duplicateRows = Counter.builder("user_import.rows").tag("outcome", "duplicate").register(meterRegistry);
+        this.chunkTimer = Timer.builder("user_import.chunk.duration")
+                .description("Time to write one chunk (batch insert + directory sync)").register(meterRegistry);
+        Gauge.builder("user_import.running", running, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public static Format formatOf(String contentType) {
+        if (contentType == null) return Format.JSON;
+        return contentType.toLowerCase(Locale.ROOT).startsWith("text/csv") ? Format.CSV : Format.JSON;
+    }
+
+    public UserImportReport importUsers(InputStream body, Format format, Long clientId) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        running.incrementAndGet();
+        try {
+            RowSource source = format == Format.CSV ? new CsvRowSource(body) : new JsonRowSource(rowReader, body);
+            Set<String> seen = new HashSet<>();
+            Chunk pending = null;
+            while (true) {
+                Chunk next = readChunk(source, clientId, seen, progress);
+                if (next != null) next.hashes = hasher.encodeAll(next.rows.stream().map(r -> r.dto.password()).toList());
+                // chunk N is written while chunk N+1 hashes on the bulk pool
+                if (pending != null) write(pending, clientId, progress);
+                if (next == null) break;
+                pending = next;
+            }
+        } finally {
+            running.decrementAndGet();
+            if (progress.imported > 0) events.publishEvent(UserChangedEvent.bulk(clientId));
+        }
+        long ms = (System.nanoTime() - started) / 1_000_000;
+        logger.info("User import for tenant {}: {} rows, {} imported, {} rejected in {} ms",
+                clientId, progress.rows, progress.imported, progress.rejected, ms);
+        return new UserImportReport(progress.rows, progress.imported, progress.rejected,
+                List.copyOf(progress.errors), progress.truncated, ms);
+    }
+
+    /** Next chunk of valid, new rows; null at end of input. */
+    private Chunk readChunk(RowSource source, Long clientId, Set<String> seen, Progress progress) throws IOException {
+        List<Row> rows = new ArrayList<>(chunkSize);
+        boolean any = false;
+        while (rows.size() < chunkSize && !progress.stopped) {
+            UserDto dto;
+            try {
+                dto = source.next();
+            } catch (JsonProcessingException e) {
+                // malformed JSON cannot be resynchronised: keep the rows before it and report where it stopped
+                progress.error(progress.rows + 1, null, "Malformed input: " + e.getOriginalMessage());
+                progress.stopped = true;
+                break;
+            }
+            if (dto == null) break;
+            any = true;
+            long rowNo = ++progress.rows;
+            if (rowNo > maxRows) {
+                progress.rows--;
+                progress.error(rowNo, dto.email(), "Import is limited to " + maxRows + " rows per request; the rest was ignored");
+                progress.stopped = true;
+                break;
+            }
+            try {
+                validateInputs.handleUserRegistration(dto, clientId);
+            } catch (CustomBusinessException e) {
+                invalidRows.increment();
+                progress.error(rowNo, dto.email(), e.getMessage());
+                continue;
+            }
+            if (!seen.add(dto.email().toLowerCase(Locale.ROOT))) {
+                duplicateRows.increment();
+                progress.error(rowNo, dto.email(), "Duplicate email in this import");
+                continue;
+            }
+            rows.add(new Row(rowNo, dto));
+        }
+        if (!any) return null;
+        dropExisting(rows, progress);
+        return new Chunk(rows);
+    }
+
+    /** Emails are unique across tenants: one IN query per chunk instead of a lookup per row. */
+    private void dropExisting(List<Row> rows, Progress progress) {
+        if (rows.isEmpty()) return;
+        List<String> emails = rows.stream().map(r -> r.dto.email()).toList();
+        Set<String> existing = new HashSet<>();
+        jdbc.query("SELECT email FROM users WHERE email IN (:emails)", new MapSqlParameterSource("emails", emails),
+                rs -> { existing.add(rs.getString(1).toLowerCase(Locale.ROOT)); });
+        if (existing.isEmpty()) return;
+        rows.removeIf(r -> {
+            if (!existing.contains(r.dto.email().toLowerCase(Locale.ROOT))) return false;
+            duplicateRows.increment();
+            progress.error(r.rowNo, r.dto.email(), "User already exists");
+            return true;
+        });
+    }
+
+    private void write(Chunk chunk, Long clientId, Progress progress) {
+        if (chunk.rows.isEmpty()) return;
+        List<String> hashes;
+        try {
+            hashes = chunk.hashes.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(chunk.rows.size());
+        for (int i = 0; i < chunk.rows.size(); i++) {
+            UserDto d = chunk.rows.get(i).dto;
+            args.add(new Object[]{d.email(), d.name(), d.phoneNumber(), d.gender(), d.dob(),
+                    d.roles().toUpperCase(Locale.getDefault()), hashes.get(i), clientId, now});
+        }
+        List<String> emails = chunk.rows.stream().map(r -> r.dto.email()).toList();
+        Map<String, String[]> written = chunkTimer.record(() -> tx.execute(status -> {
+            jdbc.getJdbcTemplate().batchUpdate(INSERT_USER, args);
+            jdbc.update(SYNC_DIRECTORY, new MapSqlParameterSource("clientId", clientId).addValue("emails", emails));
+            Map<String, String[]> byEmail = new HashMap<>();
+            jdbc.query(SELECT_WRITTEN, new MapSqlParameterSource("emails", emails), rs -> {
+                byEmail.put(rs.getString("email").toLowerCase(Locale.ROOT),
+                        new String[]{rs.getString("client_id"), rs.getString("password")});
+            });
+            return byEmail;
+        }));
+        versions.bump(clientId); // list pollers see each committed chunk, not just the finished import
+        String tenant = clientId.toString();
+        for (int i = 0; i < chunk.rows.size(); i++) {
+            Row row = chunk.rows.get(i);
+            String[] stored = written == null ? null : written.get(row.dto.email().toLowerCase(Locale.ROOT));
+            if (stored != null && tenant.equals(stored[0]) && hashes.get(i).equals(stored[1])) {
+                importedRows.increment();
+                progress.imported++;
+            } else {
+                // a concurrent registration (in this or another tenant) took the email after the duplicate check
+                duplicateRows.increment();
+                progress.error(row.rowNo, row.dto.email(), stored != null ? "User already exists" : "User was not inserted");
+            }
+        }
+        logger.debug("User import for tenant {}: {} rows read, {} imported so far", clientId, progress.rows, progress.imported);
+    }
+
+    private record Row(long rowNo, UserDto dto) {}
+
+    private static final class Chunk {
+        final List<Row> rows;
+        CompletableFuture<List<String>> hashes;
+
+        Chunk(List<Row> rows) {
+            this.rows = rows;
+        }
+    }
+
+    private final class Progress {
+        long rows;
+        long imported;
+        long rejected;
+        boolean truncated;
+        boolean stopped;
+        final List<UserImportError> errors = new ArrayList<>();
+
+        void error(long row, String email, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) errors.add(new UserImportError(row, email, message));
+            else truncated = true;
+        }
+    }
+
+    interface RowSource {
+        /** Next row, or null at end of input. */
+        UserDto next() throws IOException;
+    }
+
+    /** NDJSON or a JSON array of {@link UserDto}, bound one object at a time. */
+    private static final class JsonRowSource implements RowSource {
+        private final MappingIterator<UserDto> it;
+
+        JsonRowSource(ObjectReader reader, InputStream in) throws IOException {
+            this.it = reader.readValues(in);
+        }
+
+        @Override
+        public UserDto next() throws IOException {
+            return it.hasNextValue() ? it.nextValue() : null;
+        }
+    }
+
+    /** RFC 4180 CSV with a header row naming {@link UserDto} fields (any order, case-insensitive). */
+    static final class CsvRowSource implements RowSource {
+        private static final List<String> FIELDS = List.of("name", "phonenumber", "email", "gender", "dob", "password", "roles");
+        private final Reader in;
+        private final int[] columnOf = new int[FIELDS.size()];
+
+        CsvRowSource(InputStream body) throws IOException {
+            this.in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+            List<String> header = record();
+            if (header == null) throw new CustomBusinessException(ErrorCode.FAILED_TO_REGISTER, HttpStatus.BAD_REQUEST, "CSV header is missing");
+            Arrays.fill(columnOf, -1);
+            for (int c = 0; c < header.size(); c++) {
+                int f = FIELDS.indexOf(header.get(c).trim().toLowerCase(Locale.ROOT));
+                if (f >= 0) columnOf[f] = c;
+            }
+        }
+
+        @Override
+        public UserDto next() throws IOException {
+            List<String> r;
+            do {
+                r = record();
+            } while (r != null && r.size() == 1 && r.get(0).isEmpty()); // blank lines
+            if (r == null) return null;
+            return new UserDto(cell(r, 0), cell(r, 1), cell(r, 2), cell(r, 3), cell(r, 4), cell(r, 5), cell(r, 6), null);
+        }
+
+        private String cell(List<String> r, int field) {
+            int c = columnOf[field];
+            return c >= 0 && c < r.size() ? r.get(c) : null;
+        }
+
+        private List<String> record() throws IOException {
+            int ch = in.read();
+            if (ch == -1) return null;
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (ch == -1) break;
+                    if (ch == '"') {
+                        in.mark(1);
+                        int peek = in.read();
+                        if (peek == '"') {
+                            cell.append('"');
+                        } else {
+                            quoted = false;
+                            if (peek != -1) in.reset();
+                        }
+                    } else {
+                        cell.append((char) ch);
+                    }
+                } else if (ch == '"' && cell.isEmpty()) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                } else if (ch == '\n' || ch == -1) {
+                    break;
+                } else if (ch != '\r') {
+                    cell.append((char) ch);
+                }
+                ch = in.read();
+            }
+            cells.add(cell.toString());
+            return cells;
+        }
+    }
+}
@@ -3,26 +3,30 @@ package com.saas.ecommerce.service;
 import com.saas.ecommerce.model.dto.*;
 import com.saas.ecommerce.model.entity.RefreshToken;
 import com.saas.ecommerce.model.entity.User;
+import com.saas.ecommerce.ratelimit.RateLimitScope;
+import com.saas.ecommerce.ratelimit.RateLimiterService;
 import com.saas.ecommerce.repository.UserRepository;
 import com.saas.ecommerce.security.TenantGuard;
-import com.saas.ecommerce.session.SessionStore;
+import com.saas.ecommerce.session.PrincipalKeys;
+import com.saas.ecommerce.session.SessionBinding;
+import com.saas.ecommerce.session.SessionManager;
+import com.saas.ecommerce.utils.Pagination;
 import com.saas.ecommerce.utils.ValidateInputs;
 import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
 import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.UUID;
 
 import static com.saas.ecommerce.security.AuthContext.*;
 
@@ -33,11 +37,17 @@ public class UserService implements UserDetailsService {
     private UserRepository repository;
 
     @Autowired
-    private PasswordEncoder encoder;
+    private PasswordHasher encoder;
 
     @Autowired
     private RefreshTokenService refreshService;
 
+    @Autowired
+    private IdentityDirectoryService directory;
+
+    @Autowired
+    private RateLimiterService rateLimiter;
+
     @Autowired
     private JwtService jwtService;
 
@@ -45,11 +55,17 @@ public class UserService implements UserDetailsService {
     private ValidateInputs validateInputs;
 
     @Autowired
-    private SessionStore sessionStore;
+    private SessionManager sessionManager;
 
     @Autowired
     private TenantGuard tenantGuard;
 
+    @Autowired
+    private Pagination pagination;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
 
     @Transactional
     public UserRegistrationResponse createUser(UserDto dto, Long clientId) {
@@ -58,7 +74,7 @@ public class UserService implements UserDetailsService {
         if (!isSuperAdmin() && principal() != null) {
             tenantGuard.sameTenantOrSuper(clientId); // throws 403 if cross-tenant
         }
-        if (repository.findByEmail(dto.email()) != null) {
+        if (repository.countByEmailInAnyTenant(dto.email()) > 0) {
             throw new CustomBusinessException(ErrorCode.USER_IS_ALREADY_REGISTER, HttpStatus.CONFLICT, "User already exists");
         }
         User user = new User();
@@ -71,6 +87,8 @@ public class UserService implements UserDetailsService {
         user.setPassword(encoder.encode(dto.password()));
         user.setClientId(clientId);
         user =  repository.save(user);
+        directory.add(user);
+        events.publishEvent(UserChangedEvent.created(UserSummary.of(user)));
         return new UserRegistrationResponse(
                 user.getId(),
                 user.getName(),
@@ -82,24 +100,23 @@ public class UserService implements UserDetailsService {
         );
     }
 
-    @Transactional
+    // not @Transactional: nothing on the user row changes, and the password check must not pin a connection
     public UserLoginResponse login(UserLoginDto dto, Long clientId) {
         validateInputs.handleUserLogin(dto,clientId);
+        rateLimiter.check(RateLimitScope.TENANT, clientId.toString());
+        rateLimiter.checkLogin(PrincipalKeys.USER, clientId, dto.email());
         User user = (User) loadUserByUsername(dto.email()); // Use loadUserByUsername for consistency
-        if (user == null || !encoder.matches(dto.password(), user.getPassword())) {
+        if (user == null || !encoder.matches(dto.password(), user.getPassword(), h -> upgradePassword(user, h))) {
             throw new RuntimeException("Invalid credentials");
         }
         if (!user.getClientId().equals(clientId)) {
             throw new CustomBusinessException(ErrorCode.USER_IS_NOT_FOUND,HttpStatus.FORBIDDEN,"User does not belong to the specified client");
         }
-        // rotate session id => invalidate all old access tokens immediately
-        String sid = UUID.randomUUID().toString();
-        sessionStore.setSid(dto.email(), sid, Duration.ofDays(30));
-        RefreshToken refresh = refreshService.createRefreshToken(user, sid);
-        String access = jwtService.generateAccessToken(user.getUsername(), user.getClientId(),user.getId(), user.getRoles(), sid);
-        user.setAccessToken(access);
-        user.setToken(refresh.getToken());
-        user = repository.save(user);
+        // new session epoch => invalidate all old access tokens immediately
+        String refreshToken = jwtService.generateRefreshToken();
+        SessionBinding session = sessionManager.start(dto.email(), user.getClientId(), PrincipalKeys.user(user.getId()), refreshToken);
+        RefreshToken refresh = refreshService.createRefreshToken(user, session, refreshToken);
+        String access = jwtService.generateAccessToken(user.getUsername(), user.getClientId(),user.getId(), user.getRoles(), session);
         return new UserLoginResponse(
                 user.getId(),
                 user.getName(),
@@ -107,8 +124,8 @@ public class UserService implements UserDetailsService {
                 user.getPhoneNumber(),
                 user.getGender(),
                 user.getDob(),
-                user.getToken(),
-                user.getAccessToken(),
+                refresh.getToken(),
+                access,
                 user.getCreatedAt().toString()
         );
     }
@@ -120,6 +137,7 @@ public class UserService implements UserDetailsService {
         return user;
     }
 
+    @Transactional
     public void deleteUser(Long id) {
         var p = principal();
         var user = repository.findById(id).orElseThrow(() ->
@@ -131,21 +149,50 @@ public class UserService implements UserDetailsService {
             }
         }
         repository.delete(user);
+        directory.remove(PrincipalKeys.USER, user.getId());
+        if (user.getClientId() != null) events.publishEvent(UserChangedEvent.deleted(user.getClientId(), user.getId()));
     }
 
-    public List<User> fetchUsers(Long clientId) {
+    public CursorPage<UserSummary> fetchUsers(Long clientId, String cursor, Integer size, boolean estimateTotal) {
         if (isSuperAdmin()) {
-            return (clientId == null) ? repository.findAll()
-                    : repository.findByClientId(clientId).orElse(Collections.emptyList());
+            return (clientId == null) ? fetchAllUsersPage(cursor, size, estimateTotal)
+                    : fetchTenantUsersPage(clientId, cursor, size, estimateTotal);
         }
         Long mine = clientIdOrNull();
-        if (mine == null) return Collections.emptyList();
-        return repository.findByClientId(mine).orElse(Collections.emptyList());
+        if (mine == null) return new CursorPage<>(List.of(), null, estimateTotal ? 0L : null);
+        return fetchTenantUsersPage(mine, cursor, size, estimateTotal);
     }
 
-    public User fetchUserByClientIdAndUserId(Long clientId, Long id) {
-        return repository.fetchUserByClientIdAndUserId(clientId, id).orElse(null);
+    /** One tenant's users in id order. */
+    public CursorPage<UserSummary> fetchTenantUsersPage(Long clientId, String cursor, Integer size, boolean estimateTotal) {
+        int pageSize = pagination.pageSize(size);
+        long afterId = pagination.decode("tenant-users", cursor, 0L)[0];
+        List<UserSummary> rows = repository.findPageByClientId(clientId, afterId, pagination.fetchLimit(pageSize));
+        return CursorPage.of(rows, pageSize, u -> pagination.encode("tenant-users", u.id()),
+                estimateTotal ? repository.countByClientId(clientId) : null);
     }
 
+    /** Every tenant's users in (client_id, id) order; super admin only. */
+    /** Ordered by (client_id, id); users without a client come first, as client key 0 in the cursor. */
+    public CursorPage<UserSummary> fetchAllUsersPage(String cursor, Integer size, boolean estimateTotal) {
+        int pageSize = pagination.pageSize(size);
+        long[] after = pagination.decode("users", cursor, 0L, 0L);
+        int fetch = pagination.fetchLimit(pageSize).max();
+        List<UserSummary> rows = new ArrayList<>(fetch);
+        if (after[0] == 0L) rows.addAll(repository.findPageWithoutClient(after[1], Limit.of(fetch)));
+        if (rows.size() < fetch) rows.addAll(repository.findPage(after[0], after[1], Limit.of(fetch - rows.size())));
+        return CursorPage.of(rows, pageSize,
+                u -> pagination.encode("users", u.clientId() != null ? u.clientId() : 0L, u.id()),
+                estimateTotal ? repository.estimateRowCount() : null);
+    }
 
-}
\ No newline at end of file
+    public UserSummary fetchUserByClientIdAndUserId(Long clientId, Long id) {
+        return repository.findSummary(clientId, id).orElse(null);
+    }
+
+    /** Stores a re-hash produced at the current BCrypt cost (runs on the hashing pool). */
+    private void upgradePassword(User user, String hash) {
+        repository.updatePassword(user.getId(), hash);
+        directory.passwordChanged(PrincipalKeys.USER, user.getId(), hash);
+    }
+}
@@ -0,0 +1,63 @@
+package com.saas.ecommerce.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Bounded local copy of a shared epoch store. Peers learn of a new epoch through the bus
+ * ({@code principalKey:epoch}) and merge it with max(), so out-of-order or duplicate notices are
+ * harmless. Each entry expires {@code maxStaleness} after it was last written, in case a notice is
+ * lost; entries are evicted one by one, so the delegate never sees a cluster-wide refill wave.
+ */
+public class CachingSessionEpochStore implements SessionEpochStore, AutoCloseable {
+
+    private final SessionEpochStore delegate;
+    private final SessionInvalidationBus bus;
+    private final Cache<Long, Long> local;
+
+    public CachingSessionEpochStore(SessionEpochStore delegate, SessionInvalidationBus bus,
+                                    int maxSize, Duration maxStaleness) {
+        this.delegate = delegate;
+        this.bus = bus;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .build();
+        bus.subscribe(this::onNotice);
+    }
+
+    @Override
+    public long current(long principalKey) {
+        // concurrent misses for one principal share a single delegate read
+        return local.get(principalKey, delegate::current);
+    }
+
+    @Override
+    public long advance(long principalKey, Duration ttl) {
+        long epoch = delegate.advance(principalKey, ttl);
+        recordLocal(principalKey, epoch);
+        bus.publish(principalKey + ":" + epoch);
+        return epoch;
+    }
+
+    @Override
+    public void recordLocal(long principalKey, long epoch) {
+        local.asMap().merge(principalKey, epoch, Math::max);
+    }
+
+    private void onNotice(String notice) {
+        int sep = notice.indexOf(':');
+        if (sep < 0) return;
+        try {
+            recordLocal(Long.parseLong(notice, 0, sep, 10),
+                    Long.parseLong(notice, sep + 1, notice.length(), 10));
+        } catch (NumberFormatException ignored) { }
+    }
+
+    @Override
+    public void close() {
+        bus.close();
+    }
+}
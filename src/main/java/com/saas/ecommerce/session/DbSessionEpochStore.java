@@ -0,0 +1,65 @@
+package com.saas.ecommerce.session;
+
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Epochs in {@code session_epochs}. Advancing is one upsert that leaves the new value in
+ * {@code LAST_INSERT_ID()} on the same connection, so concurrent logins never share an epoch.
+ */
+public class DbSessionEpochStore implements SessionEpochStore {
+    private static final String ADVANCE_SQL =
+            "INSERT INTO session_epochs (principal_key, epoch, updated_at) VALUES (?, LAST_INSERT_ID(?), ?) "
+                    + "ON DUPLICATE KEY UPDATE epoch = LAST_INSERT_ID(GREATEST(epoch + 1, ?)), updated_at = VALUES(updated_at)";
+    private static final String CURRENT_SQL =
+            "SELECT epoch, updated_at FROM session_epochs WHERE principal_key = ?";
+
+    private final JdbcTemplate jdbc;
+    private final Duration ttl;
+
+    public DbSessionEpochStore(JdbcTemplate jdbc, Duration ttl) {
+        this.jdbc = jdbc;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public long current(long principalKey) {
+        try {
+            return jdbc.queryForObject(CURRENT_SQL, (rs, i) -> {
+                Instant updatedAt = rs.getTimestamp(2).toInstant();
+                if (ttl != null && updatedAt.isBefore(Instant.now().minus(ttl))) return NONE; // expired by TTL window
+                return rs.getLong(1);
+            }, principalKey);
+        } catch (EmptyResultDataAccessException e) {
+            return NONE;
+        }
+    }
+
+    @Override
+    public long advance(long principalKey, Duration ignored) {
+        long floor = System.currentTimeMillis();
+        Long epoch = jdbc.execute((ConnectionCallback<Long>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(ADVANCE_SQL)) {
+                ps.setLong(1, principalKey);
+                ps.setLong(2, floor);
+                ps.setTimestamp(3, Timestamp.from(Instant.now()));
+                ps.setLong(4, floor);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = con.prepareStatement("SELECT LAST_INSERT_ID()");
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        });
+        if (epoch == null || epoch == NONE) throw new IllegalStateException("No epoch returned for " + principalKey);
+        return epoch;
+    }
+}
@@ -0,0 +1,20 @@
+package com.saas.ecommerce.session;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** In-process bus: single-node deployments and tests. */
+public class LocalSessionInvalidationBus implements SessionInvalidationBus {
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String key) {
+        listeners.forEach(l -> l.accept(key));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+}
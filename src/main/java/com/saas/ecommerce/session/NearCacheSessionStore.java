@@ -0,0 +1,63 @@
+package com.saas.ecommerce.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Bounded local L1 over a shared L2 store (Redis or DB). Reads hit the network only on an L1 miss;
+ * writes go to L2 first and then evict the username on every other node through the bus. The
+ * local TTL bounds staleness if an invalidation is ever lost.
+ */
+public class NearCacheSessionStore implements SessionStore, AutoCloseable {
+    private static final String ABSENT = ""; // caches "no session" too; Caffeine cannot hold null
+
+    private final SessionStore delegate;
+    private final SessionInvalidationBus bus;
+    private final Cache<String, String> local;
+
+    public NearCacheSessionStore(SessionStore delegate, SessionInvalidationBus bus, long maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.bus = bus;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        bus.subscribe(local::invalidate);
+    }
+
+    @Override
+    public void setSid(String username, String sid, Duration ttl) {
+        delegate.setSid(username, sid, ttl);
+        bus.publish(username); // before the put: a local bus delivers to this node too
+        local.put(username, sid);
+    }
+
+    @Override
+    public String getSid(String username) {
+        String sid = local.get(username, k -> {
+            String stored = delegate.getSid(k);
+            return stored == null ? ABSENT : stored;
+        });
+        return ABSENT.equals(sid) ? null : sid;
+    }
+
+    @Override
+    public void clearSid(String username) {
+        delegate.clearSid(username);
+        local.invalidate(username);
+        bus.publish(username);
+    }
+
+    @Override
+    public void evictLocal(String username) {
+        local.invalidate(username);
+    }
+
+    @Override
+    public void close() throws Exception {
+        bus.close();
+        if (delegate instanceof AutoCloseable closeable) closeable.close(); // e.g. flush write-behind
+    }
+}
@@ -0,0 +1,28 @@
+package com.saas.ecommerce.session;
+
+/**
+ * Packs a principal kind and its table id into one {@code long}. Client, user and super-admin ids
+ * come from different tables and can collide, so the kind occupies the top byte. Never 0.
+ */
+public final class PrincipalKeys {
+    public static final int CLIENT = 1;
+    public static final int USER = 2;
+    public static final int SUPER_ADMIN = 3;
+
+    private static final int KIND_SHIFT = 56;
+    private static final long ID_MASK = (1L << KIND_SHIFT) - 1;
+
+    private PrincipalKeys() {}
+
+    public static long of(int kind, long id) {
+        if (id < 0 || id > ID_MASK) throw new IllegalArgumentException("Principal id out of range: " + id);
+        return ((long) kind << KIND_SHIFT) | id;
+    }
+
+    public static long client(long clientId) { return of(CLIENT, clientId); }
+    public static long user(long userId) { return of(USER, userId); }
+    public static long superAdmin(long superAdminId) { return of(SUPER_ADMIN, superAdminId); }
+
+    public static int kind(long principalKey) { return (int) (principalKey >>> KIND_SHIFT); }
+    public static long id(long principalKey) { return principalKey & ID_MASK; }
+}
@@ -0,0 +1,168 @@
+package com.saas.ecommerce.session;
+
+import com.saas.ecommerce.utils.Digests;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The Redis side of login, refresh and revoke, each as one scripted round trip. Peers are notified
+ * from inside the login script, so callers only update their local caches afterwards.
+ * Keys span hash slots: standalone/sentinel Redis only.
+ */
+public class RedisAuthScripts {
+    private static final Logger log = LoggerFactory.getLogger(RedisAuthScripts.class);
+
+    static final String EPOCH_KEY = "sess:epoch:";
+    static final String SID_KEY = "sess:user:";
+    static final String REFRESH_KEY = "refresh:";
+    static final String BLACKLIST_KEY = "blacklist:";
+    /** Registration value left on a rotated token, so retries against other nodes fail without MySQL. */
+    private static final String ROTATED = "rotated";
+    private static final Duration ROTATED_TTL = Duration.ofHours(1);
+
+    /**
+     * KEYS: epoch, legacy sid, refresh registration. ARGV: now, session ttl, refresh ttl, pk, username,
+     * epoch channel, sid channel, clientId. Registration value: {@code pk:epoch:clientId:username}.
+     */
+    private static final DefaultRedisScript<Long> LOGIN = new DefaultRedisScript<>(
+            "local e = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "local n = math.max(e + 1, tonumber(ARGV[1])) "
+                    + "redis.call('SET', KEYS[1], n, 'PX', ARGV[2]) "
+                    + "redis.call('DEL', KEYS[2]) "
+                    + "redis.call('SET', KEYS[3], ARGV[4] .. ':' .. n .. ':' .. ARGV[8] .. ':' .. ARGV[5], 'PX', ARGV[3]) "
+                    + "redis.call('PUBLISH', ARGV[6], 'script|' .. ARGV[4] .. ':' .. n) "
+                    + "redis.call('PUBLISH', ARGV[7], 'script|' .. ARGV[5]) "
+                    + "return n", Long.class);
+
+    /** KEYS: blacklist, registration. Returns the registration, or "revoked" if blacklisted. */
+    private static final DefaultRedisScript<String> LOOKUP = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 'revoked' end "
+                    + "return redis.call('GET', KEYS[2])", String.class);
+
+    /** KEYS: blacklist(old), registration(old), registration(new). ARGV: refresh ttl, value, tombstone ttl. */
+    private static final DefaultRedisScript<Long> ROTATE = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end "
+                    + "redis.call('SET', KEYS[2], '" + ROTATED + "', 'PX', ARGV[3]) "
+                    + "redis.call('SET', KEYS[3], ARGV[2], 'PX', ARGV[1]) "
+                    + "return 1", Long.class);
+
+    /** KEYS: blacklist, registration. ARGV: remaining ttl. */
+    private static final DefaultRedisScript<Long> REVOKE = new DefaultRedisScript<>(
+            "if tonumber(ARGV[1]) > 0 then redis.call('SET', KEYS[1], 'revoked', 'PX', ARGV[1]) end "
+                    + "return redis.call('DEL', KEYS[2])", Long.class);
+
+    /** What Redis knows about a presented refresh token. */
+    public enum MirrorStatus { ACTIVE, REVOKED, ROTATED, UNKNOWN }
+
+    /** Mirrored refresh-token state; fields other than status are only set when ACTIVE. */
+    public record RefreshMirror(MirrorStatus status, long principalKey, long epoch, Long clientId, String username) {
+        static final RefreshMirror UNKNOWN = new RefreshMirror(MirrorStatus.UNKNOWN, 0L, 0L, null, null);
+        static final RefreshMirror REVOKED = new RefreshMirror(MirrorStatus.REVOKED, 0L, 0L, null, null);
+        static final RefreshMirror ROTATED = new RefreshMirror(MirrorStatus.ROTATED, 0L, 0L, null, null);
+    }
+
+    private final StringRedisTemplate redis;
+    private final boolean atomicLogin;
+
+    /**
+     * @param atomicLogin true when epochs live in this Redis, so login can advance them in the same script
+     */
+    public RedisAuthScripts(StringRedisTemplate redis, boolean atomicLogin) {
+        this.redis = redis;
+        this.atomicLogin = atomicLogin;
+    }
+
+    public boolean isAtomicLogin() {
+        return atomicLogin;
+    }
+
+    /** Advances the epoch, clears the legacy sid, registers the refresh token and notifies peers. */
+    public long login(long principalKey, Long clientId, String username, String refreshToken,
+                      Duration sessionTtl, Duration refreshTtl) {
+        Long epoch = redis.execute(LOGIN,
+                List.of(EPOCH_KEY + principalKey, SID_KEY + username, registrationKey(refreshToken)),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(sessionTtl.toMillis()),
+                String.valueOf(refreshTtl.toMillis()), String.valueOf(principalKey), username,
+                SessionStoreConfig.EPOCH_CHANNEL, SessionStoreConfig.INVALIDATION_CHANNEL,
+                clientId == null ? "" : clientId.toString());
+        if (epoch == null) throw new IllegalStateException("Redis returned no epoch");
+        return epoch;
+    }
+
+    /** Registers a refresh token issued without the login script (sid binding). Best effort. */
+    public void register(String refreshToken, SessionBinding session, Long clientId, String username, Duration refreshTtl) {
+        try {
+            redis.opsForValue().set(registrationKey(refreshToken), registration(session, clientId, username), refreshTtl);
+        } catch (Exception e) {
+            log.warn("Could not register refresh token in Redis: {}", e.getMessage());
+        }
+    }
+
+    /** One round trip: blacklist + registration. Redis errors and unregistered tokens report UNKNOWN. */
+    public RefreshMirror lookup(String refreshToken) {
+        String value;
+        try {
+            value = redis.execute(LOOKUP, List.of(blacklistKey(refreshToken), registrationKey(refreshToken)));
+        } catch (Exception e) {
+            log.warn("Refresh token lookup skipped in Redis: {}", e.getMessage());
+            return RefreshMirror.UNKNOWN;
+        }
+        if (value == null) return RefreshMirror.UNKNOWN;
+        if ("revoked".equals(value)) return RefreshMirror.REVOKED;
+        if (ROTATED.equals(value)) return RefreshMirror.ROTATED;
+        String[] parts = value.split(":", 4);
+        if (parts.length != 4) return RefreshMirror.UNKNOWN;
+        try {
+            return new RefreshMirror(MirrorStatus.ACTIVE, Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    parts[2].isEmpty() ? null : Long.valueOf(parts[2]), parts[3]);
+        } catch (NumberFormatException e) {
+            return RefreshMirror.UNKNOWN;
+        }
+    }
+
+    /**
+     * Checks the blacklist for {@code presented}, tombstones it and registers {@code next}.
+     * Returns false only if the presented token is blacklisted; Redis errors defer to the DB.
+     */
+    public boolean rotate(String presented, String next, SessionBinding session, Long clientId, String username,
+                          Duration refreshTtl) {
+        try {
+            Long ok = redis.execute(ROTATE,
+                    List.of(blacklistKey(presented), registrationKey(presented), registrationKey(next)),
+                    String.valueOf(refreshTtl.toMillis()), registration(session, clientId, username),
+                    String.valueOf(ROTATED_TTL.toMillis()));
+            return ok == null || ok != 0L;
+        } catch (Exception e) {
+            log.warn("Refresh rotation skipped in Redis: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /** Blacklists the token for its remaining lifetime and drops its registration. Best effort. */
+    public void revoke(String refreshToken, Duration remaining) {
+        try {
+            redis.execute(REVOKE, List.of(blacklistKey(refreshToken), registrationKey(refreshToken)),
+                    String.valueOf(Math.max(0L, remaining.toMillis())));
+        } catch (Exception e) {
+            log.warn("Could not revoke refresh token in Redis: {}", e.getMessage());
+        }
+    }
+
+    // raw refresh tokens never appear in Redis keys or values
+    private static String registrationKey(String refreshToken) {
+        return REFRESH_KEY + Digests.sha256Base64Url(refreshToken);
+    }
+
+    private static String blacklistKey(String refreshToken) {
+        return BLACKLIST_KEY + Digests.sha256Base64Url(refreshToken);
+    }
+
+    private static String registration(SessionBinding session, Long clientId, String username) {
+        return session.principalKey() + ":" + session.epoch() + ":" + (clientId == null ? "" : clientId) + ":" + username;
+    }
+}
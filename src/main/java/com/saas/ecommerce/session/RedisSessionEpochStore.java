@@ -0,0 +1,41 @@
+package com.saas.ecommerce.session;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Epochs in Redis under {@code sess:epoch:<principalKey>}. The new epoch is at least the current
+ * wall-clock millis, so an expired key never restarts the sequence at a value an old token holds.
+ */
+public class RedisSessionEpochStore implements SessionEpochStore {
+    private static final String KEY = RedisAuthScripts.EPOCH_KEY;
+
+    private static final DefaultRedisScript<Long> ADVANCE = new DefaultRedisScript<>(
+            "local e = tonumber(redis.call('GET', KEYS[1]) or '0') "
+                    + "local n = math.max(e + 1, tonumber(ARGV[1])) "
+                    + "redis.call('SET', KEYS[1], n, 'PX', ARGV[2]) "
+                    + "return n", Long.class);
+
+    private final StringRedisTemplate redis;
+
+    public RedisSessionEpochStore(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public long current(long principalKey) {
+        String v = redis.opsForValue().get(KEY + principalKey);
+        return v == null ? NONE : Long.parseLong(v);
+    }
+
+    @Override
+    public long advance(long principalKey, Duration ttl) {
+        Long epoch = redis.execute(ADVANCE, List.of(KEY + principalKey),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(ttl.toMillis()));
+        if (epoch == null) throw new IllegalStateException("Redis returned no epoch");
+        return epoch;
+    }
+}
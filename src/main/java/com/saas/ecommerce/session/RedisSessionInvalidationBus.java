@@ -0,0 +1,68 @@
+package com.saas.ecommerce.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Redis pub/sub bus. Messages are {@code nodeId|key}; a node ignores its own messages. */
+public class RedisSessionInvalidationBus implements SessionInvalidationBus {
+    private static final Logger log = LoggerFactory.getLogger(RedisSessionInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redis;
+    private final String channel;
+    private final RedisMessageListenerContainer container;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisSessionInvalidationBus(StringRedisTemplate redis, RedisConnectionFactory cf, String channel) {
+        this.redis = redis;
+        this.channel = channel;
+        this.container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(cf);
+        container.addMessageListener((message, pattern) ->
+                onMessage(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(channel));
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @Override
+    public void publish(String key) {
+        try {
+            redis.convertAndSend(channel, nodeId + "|" + key);
+        } catch (Exception e) {
+            // the write itself succeeded; peers fall back to their local TTL
+            log.warn("Could not publish invalidation on {}: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    private void onMessage(String payload) {
+        int sep = payload.indexOf('|');
+        if (sep < 0 || payload.startsWith(nodeId + "|")) return;
+        String key = payload.substring(sep + 1);
+        listeners.forEach(l -> l.accept(key));
+    }
+
+    @Override
+    public void close() {
+        try {
+            container.stop();
+            container.destroy();
+        } catch (Exception e) {
+            log.debug("Error stopping invalidation listener: {}", e.getMessage());
+        }
+    }
+}
@@ -6,7 +6,7 @@ import java.time.Duration;
 
 public class RedisSessionStore implements SessionStore {
     private final StringRedisTemplate redis;
-    private static final String KEY = "sess:user:";
+    private static final String KEY = RedisAuthScripts.SID_KEY;
 
     public RedisSessionStore(StringRedisTemplate redis) {
         this.redis = redis;
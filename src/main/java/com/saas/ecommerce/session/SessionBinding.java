@@ -0,0 +1,15 @@
+package com.saas.ecommerce.session;
+
+/**
+ * What an issued token is bound to. {@code sid} identifies the session (logs, refresh tokens);
+ * {@code epoch > 0} means the token is validated by epoch instead of by sid lookup.
+ */
+public record SessionBinding(String sid, long principalKey, long epoch) {
+    public static SessionBinding ofSid(String sid) {
+        return new SessionBinding(sid, 0L, 0L);
+    }
+
+    public boolean hasEpoch() {
+        return epoch > 0;
+    }
+}
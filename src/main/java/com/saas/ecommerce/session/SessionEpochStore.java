@@ -0,0 +1,20 @@
+package com.saas.ecommerce.session;
+
+import java.time.Duration;
+
+/**
+ * Monotonic per-principal session epoch. A login advances the epoch, which invalidates every token
+ * carrying an older one; validation is a single {@code long} compare.
+ */
+public interface SessionEpochStore {
+    long NONE = 0L;
+
+    /** Current epoch, or {@link #NONE} if the principal has no active session. */
+    long current(long principalKey);
+
+    /** Starts a new session and returns its epoch (strictly greater than any previous one). */
+    long advance(long principalKey, Duration ttl);
+
+    /** Records an epoch advanced outside this store (peers were notified by whoever advanced it). */
+    default void recordLocal(long principalKey, long epoch) {}
+}
@@ -0,0 +1,14 @@
+package com.saas.ecommerce.session;
+
+import java.util.function.Consumer;
+
+/** Fan-out of "this key changed" notices so other nodes can drop their local copies. */
+public interface SessionInvalidationBus extends AutoCloseable {
+    void publish(String key);
+
+    /** Listener receives keys published by other nodes (and, for the local bus, by this one). */
+    void subscribe(Consumer<String> listener);
+
+    @Override
+    default void close() {}
+}
@@ -0,0 +1,77 @@
+package com.saas.ecommerce.session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Starts and checks single-active sessions. With {@code app.session.binding=epoch} (default) tokens
+ * carry {@code pk}/{@code epoch} claims checked against {@link SessionEpochStore}; tokens issued
+ * before that (sid only) are still checked against {@link SessionStore} until they expire.
+ */
+@Component
+public class SessionManager {
+    private final SessionStore sessionStore;
+    private final SessionEpochStore epochStore;
+    private final RedisAuthScripts scripts; // null without Redis
+    private final boolean epochBinding;
+    private final Duration ttl;
+    private final Duration refreshTtl;
+
+    public SessionManager(SessionStore sessionStore,
+                          SessionEpochStore epochStore,
+                          @Nullable RedisAuthScripts scripts,
+                          @Value("${app.session.binding:epoch}") String binding,
+                          @Value("${app.session.ttl-days:30}") long ttlDays,
+                          @Value("${jwt.expiry.refresh}") long refreshExpirySeconds) {
+        if (!"epoch".equalsIgnoreCase(binding) && !"sid".equalsIgnoreCase(binding)) {
+            throw new IllegalStateException("Unsupported app.session.binding: " + binding);
+        }
+        this.sessionStore = sessionStore;
+        this.epochStore = epochStore;
+        this.scripts = scripts;
+        this.epochBinding = "epoch".equalsIgnoreCase(binding);
+        this.ttl = Duration.ofDays(ttlDays);
+        this.refreshTtl = Duration.ofSeconds(refreshExpirySeconds);
+    }
+
+    /**
+     * Login: invalidates every earlier token of this principal and returns the new binding. With
+     * epochs in Redis, the epoch, legacy sid and {@code refreshToken} registration are one script call.
+     */
+    public SessionBinding start(String username, Long clientId, long principalKey, String refreshToken) {
+        String sid = UUID.randomUUID().toString();
+        if (!epochBinding) {
+            sessionStore.setSid(username, sid, ttl);
+            SessionBinding session = SessionBinding.ofSid(sid);
+            if (scripts != null) scripts.register(refreshToken, session, clientId, username, refreshTtl);
+            return session;
+        }
+        if (scripts != null && scripts.isAtomicLogin()) {
+            long epoch = scripts.login(principalKey, clientId, username, refreshToken, ttl, refreshTtl);
+            epochStore.recordLocal(principalKey, epoch);
+            sessionStore.evictLocal(username);
+            return new SessionBinding(sid, principalKey, epoch);
+        }
+        long epoch = epochStore.advance(principalKey, ttl);
+        sessionStore.clearSid(username); // kills sid-only tokens issued before the switch
+        SessionBinding session = new SessionBinding(sid, principalKey, epoch);
+        if (scripts != null) scripts.register(refreshToken, session, clientId, username, refreshTtl);
+        return session;
+    }
+
+    /** Epoch-bound tokens: allocation-free primitive compare. */
+    public boolean isCurrent(long principalKey, long epoch) {
+        return epoch != SessionEpochStore.NONE && epochStore.current(principalKey) == epoch;
+    }
+
+    /** Sid-bound (legacy) tokens. */
+    public boolean isCurrent(String username, String sid) {
+        if (sid == null) return false;
+        String expected = sessionStore.getSid(username);
+        return expected != null && expected.equals(sid);
+    }
+}
@@ -7,4 +7,7 @@ public interface SessionStore {
     void setSid(String username, String sid, Duration ttl);
     String getSid(String username);        // null => not found/expired
     void clearSid(String username);
+
+    /** Drops any node-local copy after the shared entry was changed elsewhere (e.g. by a Redis script). */
+    default void evictLocal(String username) {}
 }
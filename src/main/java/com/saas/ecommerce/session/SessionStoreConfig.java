@@ -9,35 +9,44 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Configuration
 public class SessionStoreConfig {
 
+    static final String INVALIDATION_CHANNEL = "sess:invalidate";
+    static final String EPOCH_CHANNEL = "sess:epoch";
+
     @Bean
     public SessionStore sessionStore(
             Optional<StringRedisTemplate> redisOpt,
             Optional<RedisConnectionFactory> redisCfOpt,
             UserSessionRepository repo,
             @Value("${app.session.store:auto}") String mode,
-            @Value("${app.session.ttl-days:30}") long ttlDays
+            @Value("${app.session.ttl-days:30}") long ttlDays,
+            @Value("${app.session.near-cache.max-size:100000}") long nearCacheMaxSize,
+            @Value("${app.session.near-cache.ttl-seconds:60}") long nearCacheTtlSeconds,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.session.db.write-behind.enabled:false}") boolean writeBehind,
+            @Value("${app.session.db.write-behind.flush-interval-ms:100}") long flushIntervalMs,
+            @Value("${app.session.db.write-behind.max-batch:500}") int maxBatch
     ) {
         Logger log = LoggerFactory.getLogger(SessionStoreConfig.class);
         Duration ttl = Duration.ofDays(ttlDays);
+        Supplier<SessionStore> dbStore = () -> {
+            DbSessionStore db = new DbSessionStore(repo, ttl);
+            if (!writeBehind) return db;
+            log.info("DbSessionStore write-behind enabled (flush every {}ms, batch {})", flushIntervalMs, maxBatch);
+            return new WriteBehindDbSessionStore(db, jdbcTemplate, Duration.ofMillis(flushIntervalMs), maxBatch);
+        };
 
-        boolean redisUp = redisCfOpt.map(cf -> {
-            try (var conn = cf.getConnection()) {
-                conn.ping(); // throws if not reachable
-                return true;
-            } catch (Exception e) {
-                log.info("Redis ping failed: {}", e.getMessage());
-                return false;
-            }
-        }).orElse(false);
+        boolean redisUp = redisUp(redisCfOpt, log);
 
-        // Modes: redis | db | auto
+        // Modes: redis | db | tiered | auto
         if ("redis".equalsIgnoreCase(mode)) {
             if (redisUp && redisOpt.isPresent()) {
                 log.info("Using RedisSessionStore (mode=redis)");
@@ -48,7 +57,21 @@ public class SessionStoreConfig {
 
         if ("db".equalsIgnoreCase(mode)) {
             log.info("Using DbSessionStore (mode=db)");
-            return new DbSessionStore(repo, ttl);
+            return dbStore.get();
+        }
+
+        // tiered: local L1 over Redis (preferred) or DB, invalidated cluster-wide via Redis pub/sub
+        if ("tiered".equalsIgnoreCase(mode)) {
+            Duration nearTtl = Duration.ofSeconds(nearCacheTtlSeconds);
+            if (redisUp && redisOpt.isPresent()) {
+                log.info("Using NearCacheSessionStore over Redis (mode=tiered)");
+                var bus = new RedisSessionInvalidationBus(redisOpt.get(), redisCfOpt.get(), INVALIDATION_CHANNEL);
+                return new NearCacheSessionStore(new RedisSessionStore(redisOpt.get()), bus, nearCacheMaxSize, nearTtl);
+            }
+            log.warn("Using NearCacheSessionStore over DB without Redis (mode=tiered): invalidations stay on this node, "
+                    + "other nodes may see a stale sid for up to {}s", nearCacheTtlSeconds);
+            return new NearCacheSessionStore(dbStore.get(), new LocalSessionInvalidationBus(),
+                    nearCacheMaxSize, nearTtl);
         }
 
         // auto (prefer Redis if up, else DB)
@@ -57,7 +80,74 @@ public class SessionStoreConfig {
             return new RedisSessionStore(redisOpt.get());
         } else {
             log.info("Using DbSessionStore (mode=auto, redisUp=false)");
-            return new DbSessionStore(repo, ttl);
+            return dbStore.get();
+        }
+    }
+
+    /**
+     * Same backend choice as the sid store (db | redis | auto/tiered). Redis epochs sit behind a local
+     * cache kept current over pub/sub; DB epochs are read on every check unless a node-local cache is
+     * explicitly allowed.
+     */
+    @Bean
+    public SessionEpochStore sessionEpochStore(
+            Optional<StringRedisTemplate> redisOpt,
+            Optional<RedisConnectionFactory> redisCfOpt,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.session.store:auto}") String mode,
+            @Value("${app.session.ttl-days:30}") long ttlDays,
+            @Value("${app.session.epoch-cache.max-size:1000000}") int maxSize,
+            @Value("${app.session.epoch-cache.max-staleness-seconds:60}") long maxStalenessSeconds,
+            @Value("${app.session.epoch-cache.without-redis:false}") boolean cacheWithoutRedis
+    ) {
+        Logger log = LoggerFactory.getLogger(SessionStoreConfig.class);
+        Duration maxStaleness = Duration.ofSeconds(maxStalenessSeconds);
+        boolean useRedis = epochsInRedis(mode, redisOpt, redisCfOpt, log);
+        if ("redis".equalsIgnoreCase(mode) && !useRedis) {
+            throw new IllegalStateException("Redis selected but not available");
+        }
+        if (useRedis) {
+            log.info("Using RedisSessionEpochStore behind a local epoch map (mode={})", mode);
+            var bus = new RedisSessionInvalidationBus(redisOpt.get(), redisCfOpt.get(), EPOCH_CHANNEL);
+            return new CachingSessionEpochStore(new RedisSessionEpochStore(redisOpt.get()), bus, maxSize, maxStaleness);
+        }
+        DbSessionEpochStore db = new DbSessionEpochStore(jdbcTemplate, Duration.ofDays(ttlDays));
+        if (!cacheWithoutRedis) {
+            // no bus to reach peers: a local copy would let them accept a superseded session
+            log.info("Using DbSessionEpochStore without a local cache (mode={}): every check reads the database", mode);
+            return db;
         }
+        log.warn("Using DbSessionEpochStore behind a node-local epoch cache (mode={}): other nodes keep accepting "
+                + "a superseded session for up to {}s after a re-login", mode, maxStalenessSeconds);
+        return new CachingSessionEpochStore(db, new LocalSessionInvalidationBus(), maxSize, maxStaleness);
+    }
+
+    /** One-round-trip Redis ops for login/refresh/revoke; absent (null) when Redis is not reachable. */
+    @Bean
+    public RedisAuthScripts redisAuthScripts(
+            Optional<StringRedisTemplate> redisOpt,
+            Optional<RedisConnectionFactory> redisCfOpt,
+            @Value("${app.session.store:auto}") String mode
+    ) {
+        Logger log = LoggerFactory.getLogger(SessionStoreConfig.class);
+        if (redisOpt.isEmpty() || !redisUp(redisCfOpt, log)) return null;
+        return new RedisAuthScripts(redisOpt.get(), epochsInRedis(mode, redisOpt, redisCfOpt, log));
+    }
+
+    private static boolean epochsInRedis(String mode, Optional<StringRedisTemplate> redisOpt,
+                                         Optional<RedisConnectionFactory> redisCfOpt, Logger log) {
+        return !"db".equalsIgnoreCase(mode) && redisOpt.isPresent() && redisUp(redisCfOpt, log);
+    }
+
+    public static boolean redisUp(Optional<RedisConnectionFactory> redisCfOpt, Logger log) {
+        return redisCfOpt.map(cf -> {
+            try (var conn = cf.getConnection()) {
+                conn.ping(); // throws if not reachable
+                return true;
+            } catch (Exception e) {
+                log.info("Redis ping failed: {}", e.getMessage());
+                return false;
+            }
+        }).orElse(false);
     }
 }
@@ -0,0 +1,116 @@
+package com.saas.ecommerce.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind variant of {@link DbSessionStore} for login storms. Writes are coalesced per username
+ * in memory (last write wins) and flushed every {@code flushInterval} as one batched upsert plus one
+ * batched delete. Reads on this node see pending writes, so the single-active-session check stays
+ * exact here; other nodes see a new sid once it is flushed (at most one interval later).
+ */
+public class WriteBehindDbSessionStore implements SessionStore, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindDbSessionStore.class);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO user_sessions (username, session_id, updated_at) VALUES (?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE session_id = VALUES(session_id), updated_at = VALUES(updated_at)";
+    private static final String DELETE_SQL = "DELETE FROM user_sessions WHERE username = ?";
+
+    /** sid == null means "clear". */
+    private record Pending(String sid, Instant at) {}
+
+    private final DbSessionStore reads;
+    private final JdbcTemplate jdbc;
+    private final int maxBatch;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    public WriteBehindDbSessionStore(DbSessionStore reads, JdbcTemplate jdbc, Duration flushInterval, int maxBatch) {
+        this.reads = reads;
+        this.jdbc = jdbc;
+        this.maxBatch = maxBatch;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void setSid(String username, String sid, Duration ttl) {
+        pending.put(username, new Pending(sid, Instant.now()));
+    }
+
+    @Override
+    public String getSid(String username) {
+        Pending p = pending.get(username);
+        if (p != null) return p.sid();
+        return reads.getSid(username);
+    }
+
+    @Override
+    public void clearSid(String username) {
+        pending.put(username, new Pending(null, Instant.now()));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // entries stay pending and are retried on the next tick
+            log.warn("Session write-behind flush failed ({} pending): {}", pending.size(), e.getMessage());
+        }
+    }
+
+    /** Drains everything pending in batches of {@code maxBatch}. Single writer: scheduler or shutdown. */
+    synchronized void flush() {
+        while (!pending.isEmpty()) {
+            List<Map.Entry<String, Pending>> batch = new ArrayList<>(Math.min(maxBatch, pending.size()));
+            for (Map.Entry<String, Pending> e : pending.entrySet()) {
+                batch.add(Map.entry(e.getKey(), e.getValue()));
+                if (batch.size() == maxBatch) break;
+            }
+            List<Map.Entry<String, Pending>> upserts = batch.stream().filter(e -> e.getValue().sid() != null).toList();
+            List<Map.Entry<String, Pending>> deletes = batch.stream().filter(e -> e.getValue().sid() == null).toList();
+            if (!upserts.isEmpty()) {
+                jdbc.batchUpdate(UPSERT_SQL, upserts, upserts.size(), (ps, e) -> {
+                    ps.setString(1, e.getKey());
+                    ps.setString(2, e.getValue().sid());
+                    ps.setTimestamp(3, Timestamp.from(e.getValue().at()));
+                });
+            }
+            if (!deletes.isEmpty()) {
+                jdbc.batchUpdate(DELETE_SQL, deletes, deletes.size(), (ps, e) -> ps.setString(1, e.getKey()));
+            }
+            // conditional remove: a newer write for the same user stays pending for the next round
+            batch.forEach(e -> pending.remove(e.getKey(), e.getValue()));
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Session write-behind flushed on shutdown");
+    }
+}
@@ -0,0 +1,78 @@
+package com.saas.ecommerce.tenant;
+
+import com.saas.ecommerce.utils.TenantContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Charges every connection checkout made under a tenant to that tenant's connection share; the
+ * permit is returned when the connection is closed (given back to the pool). Failing fast here
+ * keeps one tenant from holding the whole pool while others wait on Hikari's timeout.
+ */
+public class TenantBulkheadDataSource extends DelegatingDataSource {
+
+    private final TenantBulkheads bulkheads;
+
+    public TenantBulkheadDataSource(DataSource target, TenantBulkheads bulkheads) {
+        super(target);
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guard(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guard(() -> super.getConnection(username, password));
+    }
+
+    private interface Checkout {
+        Connection get() throws SQLException;
+    }
+
+    private Connection guard(Checkout checkout) throws SQLException {
+        Long tenant = TenantContext.getCurrentTenant();
+        if (tenant == null || !bulkheads.isEnabled()) return checkout.get();
+        if (!bulkheads.tryAcquire(tenant, TenantBulkheads.Kind.CONNECTIONS)) {
+            throw new SQLTransientConnectionException("Tenant " + tenant + " is at its connection limit");
+        }
+        Connection connection;
+        try {
+            connection = checkout.get();
+        } catch (SQLException | RuntimeException e) {
+            bulkheads.release(tenant, TenantBulkheads.Kind.CONNECTIONS);
+            throw e;
+        }
+        return releasingOnClose(connection, tenant);
+    }
+
+    private Connection releasingOnClose(Connection target, long tenant) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0
+                            && released.compareAndSet(false, true)) {
+                        try {
+                            target.close();
+                        } finally {
+                            bulkheads.release(tenant, TenantBulkheads.Kind.CONNECTIONS);
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,43 @@
+package com.saas.ecommerce.tenant;
+
+import com.saas.ecommerce.utils.TenantContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/** Holds one of the tenant's request permits for the whole request; sheds with 503 when none is free. */
+public class TenantBulkheadFilter extends OncePerRequestFilter {
+
+    private final TenantBulkheads bulkheads;
+
+    public TenantBulkheadFilter(TenantBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long tenant = TenantContext.getCurrentTenant();
+        if (tenant == null || !bulkheads.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!bulkheads.tryAcquire(tenant, TenantBulkheads.Kind.REQUESTS)) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"success\": false, \"message\": \"Too many concurrent requests for this tenant\"}");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkheads.release(tenant, TenantBulkheads.Kind.REQUESTS);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.saas.ecommerce.tenant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant caps on in-flight requests and held DB connections. Each tenant gets its own fair
+ * (FIFO) semaphores, so a tenant that exhausts its share queues briefly behind itself and is then
+ * rejected, while other tenants' permits are untouched. Requests without a tenant (super admins,
+ * public endpoints, background jobs) are not limited here.
+ */
+@Component
+public class TenantBulkheads {
+
+    public enum Kind { REQUESTS, CONNECTIONS }
+
+    private final boolean enabled;
+    private final int defaultRequests;
+    private final int defaultConnections;
+    private final long requestWaitNanos;
+    private final long connectionWaitNanos;
+    private final Map<Long, int[]> overrides;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<Long, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public TenantBulkheads(MeterRegistry meterRegistry,
+                           @Value("${app.tenants.bulkhead.enabled:true}") boolean enabled,
+                           @Value("${app.tenants.bulkhead.max-requests:50}") int defaultRequests,
+                           @Value("${app.tenants.bulkhead.max-connections:5}") int defaultConnections,
+                           @Value("${app.tenants.bulkhead.request-wait-ms:20}") long requestWaitMs,
+                           @Value("${app.tenants.bulkhead.connection-wait-ms:100}") long connectionWaitMs,
+                           @Value("${app.tenants.bulkhead.overrides:}") String overrides) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultRequests = defaultRequests;
+        this.defaultConnections = defaultConnections;
+        this.requestWaitNanos = TimeUnit.MILLISECONDS.toNanos(requestWaitMs);
+        this.connectionWaitNanos = TimeUnit.MILLISECONDS.toNanos(connectionWaitMs);
+        this.overrides = parseOverrides(overrides);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Waits up to the configured time for a permit; false means the tenant is over its share. */
+    public boolean tryAcquire(long tenantId, Kind kind) {
+        Bulkhead b = bulkhead(tenantId);
+        Semaphore s = b.semaphore(kind);
+        long wait = kind == Kind.REQUESTS ? requestWaitNanos : connectionWaitNanos;
+        try {
+            if (s.tryAcquire(wait, TimeUnit.NANOSECONDS)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        b.rejected(kind).increment();
+        return false;
+    }
+
+    public void release(long tenantId, Kind kind) {
+        Bulkhead b = bulkheads.get(tenantId);
+        if (b != null) b.semaphore(kind).release();
+    }
+
+    private Bulkhead bulkhead(long tenantId) {
+        Bulkhead b = bulkheads.get(tenantId);
+        return b != null ? b : bulkheads.computeIfAbsent(tenantId, this::create);
+    }
+
+    private Bulkhead create(long tenantId) {
+        int[] limits = overrides.getOrDefault(tenantId, new int[]{defaultRequests, defaultConnections});
+        Bulkhead b = new Bulkhead(limits[0], limits[1]);
+        for (Kind kind : Kind.values()) {
+            Tags tags = Tags.of("tenant", Long.toString(tenantId), "kind", kind.name().toLowerCase(Locale.ROOT));
+            int capacity = kind == Kind.REQUESTS ? limits[0] : limits[1];
+            Semaphore s = b.semaphore(kind);
+            Gauge.builder("tenant.bulkhead.in_use", s, sem -> capacity - sem.availablePermits())
+                    .tags(tags).register(meterRegistry);
+            Gauge.builder("tenant.bulkhead.queued", s, Semaphore::getQueueLength)
+                    .tags(tags).register(meterRegistry);
+            Gauge.builder("tenant.bulkhead.limit", () -> capacity).tags(tags).register(meterRegistry);
+            b.rejected[kind.ordinal()] = Counter.builder("tenant.bulkhead.rejected")
+                    .description("Requests or connection checkouts refused because the tenant was at its limit")
+                    .tags(tags).register(meterRegistry);
+        }
+        return b;
+    }
+
+    /** {@code "42=200/20, 7=10/2"}: tenant id to max requests / max connections. */
+    private static Map<Long, int[]> parseOverrides(String spec) {
+        if (spec == null || spec.isBlank()) return Map.of();
+        Map<Long, int[]> out = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] kv = entry.split("=");
+            String[] limits = kv.length == 2 ? kv[1].split("/") : new String[0];
+            if (limits.length != 2) throw new IllegalArgumentException("Bad tenant bulkhead override: " + entry);
+            out.put(Long.parseLong(kv[0].trim()),
+                    new int[]{Integer.parseInt(limits[0].trim()), Integer.parseInt(limits[1].trim())});
+        }
+        return Map.copyOf(out);
+    }
+
+    private static final class Bulkhead {
+        private final Semaphore requests;
+        private final Semaphore connections;
+        private final Counter[] rejected = new Counter[Kind.values().length];
+
+        Bulkhead(int maxRequests, int maxConnections) {
+            this.requests = new Semaphore(maxRequests, true);
+            this.connections = new Semaphore(maxConnections, true);
+        }
+
+        Semaphore semaphore(Kind kind) {
+            return kind == Kind.REQUESTS ? requests : connections;
+        }
+
+        Counter rejected(Kind kind) {
+            return rejected[kind.ordinal()];
+        }
+    }
+}
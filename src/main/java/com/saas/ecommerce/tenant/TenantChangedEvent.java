@@ -0,0 +1,4 @@
+package com.saas.ecommerce.tenant;
+
+/** Published by {@link TenantRegistry} for each tenant whose status changed in a poll. */
+public record TenantChangedEvent(TenantStatus previous, TenantStatus current) {}
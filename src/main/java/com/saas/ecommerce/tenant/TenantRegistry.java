@@ -0,0 +1,193 @@
+package com.saas.ecommerce.tenant;
+
+import com.saas.ecommerce.ratelimit.RateLimitPolicy;
+import com.saas.ecommerce.utils.ConcurrentLongLongMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Tenant (client) status for the request path. Lookups binary-search an immutable snapshot of
+ * sorted {@code long} ids, so {@link #get(long)} never allocates, locks or touches the database.
+ * Each node polls {@code clients.updated_at} (set by MySQL on every row change) and swaps in a new
+ * snapshot, so a deactivation reaches every node within one poll interval.
+ */
+@Component
+public class TenantRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantRegistry.class);
+    private static final String COLUMNS = "SELECT id, is_active, plan, rate_limit, updated_at FROM clients";
+    private static final int MAX_ABSENT = 100_000;
+
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+    private final Duration overlap;
+    private final Timer pollTimer;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    /** Ids with no clients row as of the last poll; dropped by the next one so new tenants show up. */
+    private final ConcurrentLongLongMap absent = new ConcurrentLongLongMap(1024, 16);
+    /** Highest updated_at seen; null until the first full load. Only touched by the poll thread. */
+    private Timestamp watermark;
+
+    public TenantRegistry(JdbcTemplate jdbc,
+                          ApplicationEventPublisher events,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.tenants.poll-overlap-ms:2000}") long overlapMs) {
+        this.jdbc = jdbc;
+        this.events = events;
+        this.overlap = Duration.ofMillis(overlapMs);
+        this.pollTimer = Timer.builder("tenants.registry.poll.duration").register(meterRegistry);
+        Gauge.builder("tenants.registry.size", this, r -> r.snapshot.ids.length).register(meterRegistry);
+    }
+
+    /**
+     * Status for {@code tenantId}; on a miss (e.g. registered on another node since the last poll) loads
+     * that one row. Unknown ids are remembered until the next poll, so a client hammering a deleted or
+     * made-up id costs one query per poll interval rather than one per request.
+     */
+    public TenantStatus get(long tenantId) {
+        TenantStatus status = snapshot.find(tenantId);
+        if (status != null) return status;
+        if (tenantId <= 0 || absent.get(tenantId, 0L) != 0L) return null;
+        return loadOne(tenantId);
+    }
+
+    public boolean isActive(long tenantId) {
+        TenantStatus status = get(tenantId);
+        return status != null && status.active();
+    }
+
+    @Scheduled(fixedDelayString = "${app.tenants.poll-interval-ms:500}")
+    public void poll() {
+        try {
+            pollTimer.record(this::pollOnce);
+        } catch (Exception e) {
+            logger.warn("Tenant registry poll failed, serving last snapshot: {}", e.getMessage());
+        } finally {
+            if (absent.size() > 0) absent.clear();
+        }
+    }
+
+    private void pollOnce() {
+        if (watermark == null) {
+            List<Row> all = jdbc.query(COLUMNS, ROW);
+            Snapshot loaded = Snapshot.of(all.stream().map(Row::status).toList());
+            synchronized (this) {
+                snapshot = loaded;
+            }
+            watermark = maxUpdatedAt(all, new Timestamp(0));
+            logger.info("Tenant registry loaded {} tenants", all.size());
+            return;
+        }
+        // re-read a short overlap: rows committed late with an older timestamp are not missed
+        Timestamp since = new Timestamp(watermark.getTime() - overlap.toMillis());
+        List<Row> changed = jdbc.query(COLUMNS + " WHERE updated_at > ? ORDER BY updated_at", ROW, since);
+        if (changed.isEmpty()) return;
+        watermark = maxUpdatedAt(changed, watermark);
+        apply(changed.stream().map(Row::status).toList());
+    }
+
+    private TenantStatus loadOne(long tenantId) {
+        List<Row> rows = jdbc.query(COLUMNS + " WHERE id = ?", ROW, tenantId);
+        if (rows.isEmpty()) {
+            if (absent.size() >= MAX_ABSENT) absent.clear(); // id spraying: fall back to querying, never grow unbounded
+            absent.put(tenantId, 1L);
+            return null;
+        }
+        TenantStatus status = rows.get(0).status();
+        apply(List.of(status));
+        return status;
+    }
+
+    private synchronized void apply(List<TenantStatus> updates) {
+        Snapshot current = snapshot;
+        List<TenantStatus> changed = new ArrayList<>();
+        List<TenantChangedEvent> notices = new ArrayList<>();
+        for (TenantStatus next : updates) {
+            TenantStatus previous = current.find(next.id());
+            if (!next.equals(previous)) {
+                changed.add(next);
+                if (previous != null) notices.add(new TenantChangedEvent(previous, next));
+            }
+        }
+        if (changed.isEmpty()) return;
+        snapshot = current.with(changed);
+        for (TenantChangedEvent notice : notices) {
+            if (notice.previous().active() != notice.current().active()) {
+                logger.info("Tenant {} is now {}", notice.current().id(), notice.current().active() ? "active" : "inactive");
+            }
+            events.publishEvent(notice);
+        }
+    }
+
+    private static Timestamp maxUpdatedAt(List<Row> rows, Timestamp floor) {
+        Timestamp max = floor;
+        for (Row r : rows) if (r.updatedAt() != null && r.updatedAt().after(max)) max = r.updatedAt();
+        return max;
+    }
+
+    private record Row(TenantStatus status, Timestamp updatedAt) {}
+
+    private static final RowMapper<Row> ROW = (rs, i) -> {
+        String limit = rs.getString("rate_limit");
+        RateLimitPolicy policy = null;
+        if (limit != null && !limit.isBlank()) {
+            try {
+                policy = RateLimitPolicy.parse(limit);
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring bad rate_limit '{}' on client {}", limit, rs.getLong("id"));
+            }
+        }
+        return new Row(new TenantStatus(rs.getLong("id"), rs.getBoolean("is_active"), rs.getString("plan"), policy),
+                rs.getTimestamp("updated_at"));
+    };
+
+    /** Sorted ids with parallel statuses; replaced wholesale, never mutated. */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new TenantStatus[0]);
+
+        final long[] ids;
+        final TenantStatus[] statuses;
+
+        private Snapshot(long[] ids, TenantStatus[] statuses) {
+            this.ids = ids;
+            this.statuses = statuses;
+        }
+
+        static Snapshot of(Collection<TenantStatus> all) {
+            return EMPTY.with(all);
+        }
+
+        TenantStatus find(long id) {
+            int i = Arrays.binarySearch(ids, id);
+            return i >= 0 ? statuses[i] : null;
+        }
+
+        Snapshot with(Collection<TenantStatus> changes) {
+            TreeMap<Long, TenantStatus> merged = new TreeMap<>();
+            for (int i = 0; i < ids.length; i++) merged.put(ids[i], statuses[i]);
+            for (TenantStatus s : changes) merged.put(s.id(), s);
+            long[] newIds = new long[merged.size()];
+            TenantStatus[] newStatuses = new TenantStatus[merged.size()];
+            int i = 0;
+            for (Map.Entry<Long, TenantStatus> e : merged.entrySet()) {
+                newIds[i] = e.getKey();
+                newStatuses[i++] = e.getValue();
+            }
+            return new Snapshot(newIds, newStatuses);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.saas.ecommerce.tenant;
+
+import com.saas.ecommerce.ratelimit.RateLimitPolicy;
+
+/** Immutable per-tenant view held by {@link TenantRegistry}; {@code rateLimit} is null for the default. */
+public record TenantStatus(long id, boolean active, String plan, RateLimitPolicy rateLimit) {}
@@ -0,0 +1,174 @@
+package com.saas.ecommerce.tenant;
+
+import com.saas.ecommerce.service.UserChangedEvent;
+import com.saas.ecommerce.session.LocalSessionInvalidationBus;
+import com.saas.ecommerce.session.RedisSessionInvalidationBus;
+import com.saas.ecommerce.session.SessionInvalidationBus;
+import com.saas.ecommerce.session.SessionStoreConfig;
+import com.saas.ecommerce.utils.ConcurrentLongLongMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Per-tenant version of the user list, for strong ETags on the listing endpoints. Every committed
+ * user create, delete or import chunk bumps the tenant's version, so a poll whose
+ * {@code If-None-Match} carries the current version is answered 304 from a local primitive map
+ * without touching the database.
+ * <p>
+ * With Redis the version lives under {@code tenant:ver:<id>} and bumps are fanned out over pub/sub
+ * and merged with max(), like the session epochs. Without Redis each node keeps its own versions and
+ * its ETags carry a node tag, so they never validate on another node. Either way the local map is
+ * dropped every {@code max-staleness}, and a version is never lower than the wall-clock millis at
+ * which it was (re)seeded, so a lost notice or restart can only cost one extra full response.
+ */
+@Component
+public class TenantVersions implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantVersions.class);
+    private static final long MISSING = -1L;
+    static final String KEY = "tenant:ver:";
+    static final String CHANNEL = "tenant:ver";
+
+    private static final DefaultRedisScript<Long> BUMP = new DefaultRedisScript<>(
+            "local v = math.max(tonumber(redis.call('GET', KEYS[1]) or '0') + 1, tonumber(ARGV[1])) "
+                    + "redis.call('SET', KEYS[1], v) "
+                    + "return v", Long.class);
+    private static final DefaultRedisScript<Long> SEED = new DefaultRedisScript<>(
+            "local v = redis.call('GET', KEYS[1]) "
+                    + "if v then return tonumber(v) end "
+                    + "redis.call('SET', KEYS[1], ARGV[1]) "
+                    + "return tonumber(ARGV[1])", Long.class);
+
+    private final StringRedisTemplate redis; // null: versions are node-local
+    private final SessionInvalidationBus bus;
+    private final ConcurrentLongLongMap local;
+    private final String scope;
+    private final int maxSize;
+    private final long maxStalenessNanos;
+    private volatile long nextResetNanos;
+    private final Counter notModified;
+
+    public TenantVersions(Optional<StringRedisTemplate> redisOpt,
+                          Optional<RedisConnectionFactory> redisCfOpt,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.tenants.versions.max-size:100000}") int maxSize,
+                          @Value("${app.tenants.versions.max-staleness:PT60S}") Duration maxStaleness) {
+        if (redisOpt.isPresent() && SessionStoreConfig.redisUp(redisCfOpt, logger)) {
+            this.redis = redisOpt.get();
+            this.bus = new RedisSessionInvalidationBus(redis, redisCfOpt.get(), CHANNEL);
+            this.scope = "";
+            logger.info("Tenant list versions shared through Redis");
+        } else {
+            this.redis = null;
+            this.bus = new LocalSessionInvalidationBus();
+            this.scope = UUID.randomUUID().toString().substring(0, 8) + ".";
+            logger.warn("Tenant list versions are node-local without Redis: ETags only validate on the node "
+                    + "that issued them, and changes made on other nodes show up within {}", maxStaleness);
+        }
+        this.maxSize = maxSize;
+        this.local = new ConcurrentLongLongMap(maxSize, 64);
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.nextResetNanos = System.nanoTime() + maxStalenessNanos;
+        this.notModified = Counter.builder("tenant.versions.not_modified").register(meterRegistry);
+        bus.subscribe(this::onNotice);
+    }
+
+    /** Current version of {@code tenantId}'s user list. */
+    public long current(long tenantId) {
+        long now = System.nanoTime();
+        if (now - nextResetNanos > 0) {
+            nextResetNanos = now + maxStalenessNanos;
+            local.clear();
+        }
+        long version = local.get(tenantId, MISSING);
+        if (version != MISSING) return version;
+        version = seed(tenantId);
+        if (version == MISSING) return System.currentTimeMillis(); // Redis unreachable: never validates
+        if (local.size() >= maxSize) local.clear();
+        local.putIfGreater(tenantId, version);
+        return local.get(tenantId, version);
+    }
+
+    /** Marks {@code tenantId}'s users as changed; call after the change has committed. */
+    public void bump(long tenantId) {
+        long version = System.currentTimeMillis();
+        if (redis != null) {
+            try {
+                Long v = redis.execute(BUMP, List.of(KEY + tenantId), String.valueOf(version));
+                if (v != null) version = v;
+            } catch (Exception e) {
+                // peers keep the old version until their local map is next dropped
+                logger.warn("Could not bump list version of tenant {} in Redis: {}", tenantId, e.getMessage());
+            }
+        }
+        version = Math.max(version, local.get(tenantId, 0L) + 1);
+        local.putIfGreater(tenantId, version);
+        bus.publish(tenantId + ":" + version);
+    }
+
+    /**
+     * Sets a strong ETag for {@code listing} of {@code tenantId}'s users with the given request
+     * parameters, and answers true if the request's {@code If-None-Match} already holds it (the
+     * response is then 304 and the caller should return no body). Parameters that cannot appear in
+     * an ETag (only possible for a malformed cursor, which the listing rejects anyway) skip the check.
+     */
+    public boolean checkNotModified(WebRequest request, long tenantId, String listing, Object... params) {
+        StringBuilder etag = new StringBuilder(listing).append('.').append(scope).append(current(tenantId));
+        for (Object p : params) {
+            String s = p == null ? "" : p.toString();
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (!(Character.isLetterOrDigit(c) && c < 128) && c != '-' && c != '_') return false;
+            }
+            etag.append('.').append(s);
+        }
+        if (!request.checkNotModified(etag.toString())) return false;
+        notModified.increment();
+        return true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        bump(event.clientId());
+    }
+
+    private long seed(long tenantId) {
+        long now = System.currentTimeMillis();
+        if (redis == null) return now;
+        try {
+            Long v = redis.execute(SEED, List.of(KEY + tenantId), String.valueOf(now));
+            return v != null ? v : MISSING;
+        } catch (Exception e) {
+            logger.warn("Could not read list version of tenant {} from Redis: {}", tenantId, e.getMessage());
+            return MISSING;
+        }
+    }
+
+    private void onNotice(String notice) {
+        int sep = notice.indexOf(':');
+        if (sep < 0) return;
+        try {
+            local.putIfGreater(Long.parseLong(notice, 0, sep, 10),
+                    Long.parseLong(notice, sep + 1, notice.length(), 10));
+        } catch (NumberFormatException ignored) { }
+    }
+
+    @Override
+    public void close() {
+        bus.close();
+    }
+}
@@ -0,0 +1,210 @@
+package com.saas.ecommerce.utils;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent open-addressing {@code long -> long} map. Keys and values live interleaved in one
+ * {@code long[]} per section (no boxing, no entry objects), and reads take an optimistic stamp, so
+ * {@link #get} allocates nothing and never blocks in the common case. Key {@code 0} is reserved
+ * as the empty-slot marker.
+ */
+public final class ConcurrentLongLongMap {
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.66f;
+
+    private final Section[] sections;
+    private final int sectionShift;
+
+    public ConcurrentLongLongMap() {
+        this(1024, 16);
+    }
+
+    public ConcurrentLongLongMap(int expectedSize, int concurrencyLevel) {
+        int n = Integer.highestOneBit(Math.max(1, concurrencyLevel - 1) << 1);
+        this.sections = new Section[n];
+        this.sectionShift = 64 - Integer.numberOfTrailingZeros(n);
+        int perSection = Math.max(8, (int) (expectedSize / LOAD_FACTOR) / n);
+        for (int i = 0; i < n; i++) sections[i] = new Section(perSection);
+    }
+
+    /** Value for {@code key}, or {@code missing} if absent. */
+    public long get(long key, long missing) {
+        checkKey(key);
+        long h = mix(key);
+        return section(h).get(key, (int) h, missing);
+    }
+
+    public void put(long key, long value) {
+        checkKey(key);
+        long h = mix(key);
+        section(h).put(key, value, (int) h, false);
+    }
+
+    /** Stores {@code max(current, value)}; lets out-of-order updates of a monotonic counter converge. */
+    public void putIfGreater(long key, long value) {
+        checkKey(key);
+        long h = mix(key);
+        section(h).put(key, value, (int) h, true);
+    }
+
+    public void remove(long key) {
+        checkKey(key);
+        long h = mix(key);
+        section(h).remove(key, (int) h);
+    }
+
+    public void clear() {
+        for (Section s : sections) s.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Section s : sections) size += s.size();
+        return size;
+    }
+
+    private Section section(long hash) {
+        return sections[(int) (hash >>> sectionShift) & (sections.length - 1)];
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) throw new IllegalArgumentException("Key 0 is reserved");
+    }
+
+    /** Murmur3 finalizer: high bits pick the section, low bits the bucket. */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Section extends StampedLock {
+        private volatile long[] table; // [k0, v0, k1, v1, ...]
+        private int size;
+
+        Section(int capacity) {
+            int buckets = Integer.highestOneBit(capacity - 1) << 1;
+            this.table = new long[buckets << 1];
+        }
+
+        long get(long key, int hash, long missing) {
+            long stamp = tryOptimisticRead();
+            long result = probe(table, key, hash, missing);
+            if (validate(stamp)) return result;
+            stamp = readLock();
+            try {
+                return probe(table, key, hash, missing);
+            } finally {
+                unlockRead(stamp);
+            }
+        }
+
+        private static long probe(long[] t, long key, int hash, long missing) {
+            int buckets = t.length >> 1;
+            int mask = buckets - 1;
+            int i = hash & mask;
+            for (int n = 0; n < buckets; n++) {
+                long k = t[i << 1];
+                if (k == key) return t[(i << 1) + 1];
+                if (k == EMPTY) return missing;
+                i = (i + 1) & mask;
+            }
+            return missing; // only reachable on a torn optimistic read; caller re-validates
+        }
+
+        void put(long key, long value, int hash, boolean onlyIfGreater) {
+            long stamp = writeLock();
+            try {
+                long[] t = table;
+                int mask = (t.length >> 1) - 1;
+                int i = hash & mask;
+                while (true) {
+                    long k = t[i << 1];
+                    if (k == key) {
+                        if (!onlyIfGreater || value > t[(i << 1) + 1]) t[(i << 1) + 1] = value;
+                        return;
+                    }
+                    if (k == EMPTY) {
+                        t[(i << 1) + 1] = value;
+                        t[i << 1] = key;
+                        if (++size > (t.length >> 1) * LOAD_FACTOR) rehash(t);
+                        return;
+                    }
+                    i = (i + 1) & mask;
+                }
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+
+        void remove(long key, int hash) {
+            long stamp = writeLock();
+            try {
+                long[] t = table;
+                int mask = (t.length >> 1) - 1;
+                int i = hash & mask;
+                while (true) {
+                    long k = t[i << 1];
+                    if (k == EMPTY) return;
+                    if (k == key) break;
+                    i = (i + 1) & mask;
+                }
+                size--;
+                // backward-shift deletion keeps probe chains intact without tombstones
+                int j = i;
+                while (true) {
+                    j = (j + 1) & mask;
+                    long k = t[j << 1];
+                    if (k == EMPTY) break;
+                    int home = (int) mix(k) & mask;
+                    boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+                    if (stays) continue;
+                    t[i << 1] = k;
+                    t[(i << 1) + 1] = t[(j << 1) + 1];
+                    i = j;
+                }
+                t[i << 1] = EMPTY;
+                t[(i << 1) + 1] = 0L;
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+
+        private void rehash(long[] old) {
+            long[] t = new long[old.length << 1];
+            int mask = (t.length >> 1) - 1;
+            for (int s = 0; s < old.length; s += 2) {
+                long k = old[s];
+                if (k == EMPTY) continue;
+                int i = (int) mix(k) & mask;
+                while (t[i << 1] != EMPTY) i = (i + 1) & mask;
+                t[i << 1] = k;
+                t[(i << 1) + 1] = old[s + 1];
+            }
+            table = t;
+        }
+
+        void clear() {
+            long stamp = writeLock();
+            try {
+                table = new long[table.length];
+                size = 0;
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = readLock();
+            try {
+                return size;
+            } finally {
+                unlockRead(stamp);
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class Constant {
             "/api/user/login",
             "/api/auth/login",
             "/api/auth/refresh",
+            "/.well-known/jwks.json",
             "/actuator/health",
             "/error",
             "/v3/api-docs/**",
@@ -0,0 +1,26 @@
+package com.saas.ecommerce.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/** Fixed-width digests used as cache/lookup keys for bearer tokens (never store or key on the raw token). */
+public final class Digests {
+    private static final Base64.Encoder B64URL = Base64.getUrlEncoder().withoutPadding();
+
+    private Digests() {}
+
+    public static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** 43-char url-safe SHA-256 of the value. */
+    public static String sha256Base64Url(String value) {
+        return B64URL.encodeToString(sha256(value));
+    }
+}
@@ -0,0 +1,48 @@
+package com.saas.ecommerce.utils;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cluster-wide lease on a row of {@code job_leases}, for background jobs that must run on one node
+ * at a time. Unlike a session-scoped {@code GET_LOCK} it holds no connection between calls: the job
+ * renews it before each unit of work, and a node that dies simply lets it expire.
+ */
+public class JobLease {
+
+    private static final String ENSURE_ROW =
+            "INSERT IGNORE INTO job_leases (name, owner, expires_at) VALUES (?, '', TIMESTAMP('1970-01-02'))";
+    private static final String CLAIM =
+            "UPDATE job_leases SET owner = ?, expires_at = NOW(3) + INTERVAL ? MICROSECOND "
+                    + "WHERE name = ? AND (owner = ? OR expires_at < NOW(3))";
+    private static final String RELEASE =
+            "UPDATE job_leases SET expires_at = NOW(3) WHERE name = ? AND owner = ?";
+
+    private final JdbcTemplate jdbc;
+    private final String name;
+    private final String owner = UUID.randomUUID().toString();
+    private final long ttlMicros;
+
+    public JobLease(JdbcTemplate jdbc, String name, Duration ttl) {
+        this.jdbc = jdbc;
+        this.name = name;
+        this.ttlMicros = ttl.toNanos() / 1_000;
+    }
+
+    /** Takes the lease if it is free or expired; false if another node holds it. */
+    public boolean tryAcquire() {
+        jdbc.update(ENSURE_ROW, name);
+        return renew();
+    }
+
+    /** Extends a held lease by the ttl; false if it expired and another node has taken it. */
+    public boolean renew() {
+        return jdbc.update(CLAIM, owner, ttlMicros, name, owner) == 1;
+    }
+
+    public void release() {
+        jdbc.update(RELEASE, name, owner);
+    }
+}
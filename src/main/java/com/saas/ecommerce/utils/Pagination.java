@@ -0,0 +1,62 @@
+package com.saas.ecommerce.utils;
+
+import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Page-size limits and opaque keyset cursors. A cursor is the sort key of the last row served,
+ * tagged with the listing it belongs to so it cannot be replayed against another endpoint.
+ */
+@Component
+public class Pagination {
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public Pagination(@Value("${app.pagination.default-size:50}") int defaultSize,
+                      @Value("${app.pagination.max-size:500}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    public int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) return defaultSize;
+        return Math.min(requested, maxSize);
+    }
+
+    /** Fetch limit for a page: one extra row tells whether another page follows. */
+    public Limit fetchLimit(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    public String encode(String listing, long... keys) {
+        StringBuilder sb = new StringBuilder(listing);
+        for (long k : keys) sb.append(':').append(k);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Keys of {@code cursor}, or {@code start} when there is no cursor (first page). */
+    public long[] decode(String listing, String cursor, long... start) {
+        if (cursor == null || cursor.isBlank()) return start;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != start.length + 1 || !parts[0].equals(listing)) throw invalidCursor();
+            long[] keys = new long[start.length];
+            for (int i = 0; i < keys.length; i++) keys[i] = Long.parseLong(parts[i + 1]);
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static CustomBusinessException invalidCursor() {
+        return new CustomBusinessException(ErrorCode.INVALID_CURSOR, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -1,9 +1,11 @@
 package com.saas.ecommerce.utils;
 
-public class TenantContext {
-    private static final ThreadLocal<Long> currentTenant = new ThreadLocal<>();
+import com.saas.ecommerce.context.RequestContext;
 
-    public static void setCurrentTenant(Long tenant) { currentTenant.set(tenant); }
-    public static Long getCurrentTenant() { return currentTenant.get(); }
-    public static void clear() { currentTenant.remove(); }
+/** The current request's tenant (client id); null for super admins, public endpoints and unbound threads. */
+public class TenantContext {
+    public static Long getCurrentTenant() {
+        RequestContext ctx = RequestContext.current();
+        return ctx == null ? null : ctx.tenantId();
+    }
 }
@@ -36,10 +36,22 @@ public class ValidateInputs {
         }
     }
 
+    public void handleAuthLoginInput(AuthLoginDto request) {
+        if (request.email() == null || request.email().isEmpty()) {
+            throw new IllegalArgumentException("Email cannot be null or empty");
+        }
+        if (request.password() == null || request.password().isEmpty()) {
+            throw new IllegalArgumentException("Password cannot be null or empty");
+        }
+    }
+
     public void handleUserRegistration(UserDto dto, Long clientId) {
         if (clientId == null) {
             throw new CustomBusinessException(ErrorCode.FAILED_TO_REGISTER, HttpStatus.BAD_REQUEST, "Client ID must be set for user creation");
         }
+        if (dto.roles() == null || dto.roles().isEmpty()) {
+            throw new CustomBusinessException(ErrorCode.FAILED_TO_REGISTER, HttpStatus.BAD_REQUEST, "Role is required");
+        }
         if (!Set.of("ADMIN", "USER").contains(dto.roles().toUpperCase())) {
             throw new CustomBusinessException(ErrorCode.INVALID_ROLE, HttpStatus.BAD_REQUEST, "Role must be ADMIN or USER");
         }
@@ -61,9 +73,6 @@ public class ValidateInputs {
         if (dto.password() == null || dto.password().isEmpty()) {
             throw new CustomBusinessException(ErrorCode.FAILED_TO_REGISTER, HttpStatus.BAD_REQUEST, "Password is required");
         }
-        if (dto.roles() == null || dto.roles().isEmpty()) {
-            throw new CustomBusinessException(ErrorCode.FAILED_TO_REGISTER, HttpStatus.BAD_REQUEST, "Role is required");
-        }
     }
 
     public void handleUserLogin(UserLoginDto dto, Long clientId) {
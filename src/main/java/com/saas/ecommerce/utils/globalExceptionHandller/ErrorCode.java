@@ -19,7 +19,11 @@ public enum ErrorCode {
     SENDER_RECEIVER_PHONE_NO_CAN_NOT_BE_SAME(601, "Sender and receiver's phone no should be different."),
     USERS_ARE_NOT_FOUND(1001, "There is no any user."),
     INVALID_ROLE(1002,"Invalid role"),
-    ACCESS_DENIED(1003,"Access denied");
+    ACCESS_DENIED(1003,"Access denied"),
+    INVALID_CURSOR(1004, "Invalid page cursor."),
+    INVALID_EXPORT_FORMAT(1005, "Unsupported export format; use ndjson or csv."),
+    SERVICE_BUSY(503, "Server is busy, please retry shortly."),
+    TOO_MANY_REQUESTS(429, "Too many requests, please slow down.");
 
 
 
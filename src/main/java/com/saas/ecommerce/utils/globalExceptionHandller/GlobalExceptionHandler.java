@@ -38,6 +38,10 @@ public class GlobalExceptionHandler {
         body.put("code", ex.getErrorCode());
         body.put("path", request.getDescription(false));
 
+        if (ex instanceof ServiceBusyException busy) {
+            return ResponseEntity.status(ex.getHttpStatus())
+                    .header("Retry-After", String.valueOf(busy.getRetryAfterSeconds())).body(body);
+        }
         return new ResponseEntity<>(body, ex.getHttpStatus());
     }
 
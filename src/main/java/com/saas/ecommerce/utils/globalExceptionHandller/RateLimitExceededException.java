@@ -0,0 +1,10 @@
+package com.saas.ecommerce.utils.globalExceptionHandller;
+
+import org.springframework.http.HttpStatus;
+
+/** 429 from the rate limiter; refused before any work, like {@link ServiceBusyException}. */
+public class RateLimitExceededException extends ServiceBusyException {
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super(ErrorCode.TOO_MANY_REQUESTS, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds);
+    }
+}
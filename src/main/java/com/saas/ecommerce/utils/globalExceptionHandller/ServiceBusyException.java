@@ -0,0 +1,19 @@
+package com.saas.ecommerce.utils.globalExceptionHandller;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/** Load shedding: the request was refused before doing work, so a client retry is safe. */
+public class ServiceBusyException extends CustomBusinessException {
+    @Getter
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException() {
+        this(ErrorCode.SERVICE_BUSY, HttpStatus.SERVICE_UNAVAILABLE, 1L);
+    }
+
+    protected ServiceBusyException(ErrorCode errorCode, HttpStatus status, long retryAfterSeconds) {
+        super(errorCode, status);
+        this.retryAfterSeconds = Math.max(1L, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,12 @@
+-- Runs after Hibernate's ddl-auto=update on every start; every statement must be idempotent and cheap.
+-- One-time backfills and column rewrites belong in config/SchemaMigrations, which records what it ran.
+
+-- job_leases: one row per background job that must run on a single node (utils/JobLease).
+CREATE TABLE IF NOT EXISTS job_leases (
+    name VARCHAR(64) NOT NULL PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP(3) NOT NULL
+);
+
+-- clients.plan was added NOT NULL by ddl-auto; rows that predate it got ''.
+UPDATE clients SET plan = 'standard' WHERE plan = '';
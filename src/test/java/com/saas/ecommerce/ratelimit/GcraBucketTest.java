@@ -0,0 +1,68 @@
+package com.saas.ecommerce.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraBucketTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long T0 = 1_000_000_000_000L;
+
+    private static int drain(GcraBucket bucket, long now) {
+        int admitted = 0;
+        while (bucket.tryAcquire(now) == 0L) admitted++;
+        return admitted;
+    }
+
+    @Test
+    void policyParsesRateAndBurst() {
+        assertEquals(new RateLimitPolicy(20, 40), RateLimitPolicy.parse(" 20 / 40 "));
+        assertEquals(new RateLimitPolicy(2.5, 3), RateLimitPolicy.parse("2.5"));
+        assertEquals(100 * MS, RateLimitPolicy.parse("10/5").intervalNanos());
+        assertEquals(400 * MS, RateLimitPolicy.parse("10/5").toleranceNanos());
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("0/5"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parse("10/0"));
+    }
+
+    @Test
+    void burstThenRejectThenRefill() {
+        var bucket = new GcraBucket(RateLimitPolicy.parse("10/5"), T0);
+        for (int i = 0; i < 5; i++) assertEquals(0L, bucket.tryAcquire(T0), "burst permit " + i);
+        assertEquals(100 * MS, bucket.tryAcquire(T0)); // next permit one interval away
+        assertEquals(40 * MS, bucket.tryAcquire(T0 + 60 * MS));
+
+        assertEquals(0L, bucket.tryAcquire(T0 + 100 * MS)); // one permit refilled
+        assertTrue(bucket.tryAcquire(T0 + 100 * MS) > 0);
+
+        assertEquals(5, drain(bucket, T0 + 10_000 * MS)); // idle: refills to the burst, never beyond
+        assertEquals(11, bucket.pending.sum()); // every local admission awaits the next sync
+    }
+
+    @Test
+    void sustainedRateIsOnePermitPerInterval() {
+        var bucket = new GcraBucket(RateLimitPolicy.parse("10/1"), T0);
+        for (int i = 0; i < 20; i++) {
+            long now = T0 + i * 100 * MS;
+            assertEquals(0L, bucket.tryAcquire(now));
+            assertTrue(bucket.tryAcquire(now) > 0);
+        }
+    }
+
+    @Test
+    void chargeConsumesPermitsAdmittedElsewhere() {
+        var bucket = new GcraBucket(RateLimitPolicy.parse("10/5"), T0);
+        bucket.charge(3, T0);
+        assertEquals(2, drain(bucket, T0));
+        assertEquals(2, bucket.pending.sum()); // remote admissions are not re-reported
+    }
+
+    @Test
+    void chargedDebtIsCapped() {
+        var bucket = new GcraBucket(RateLimitPolicy.parse("10/5"), T0);
+        bucket.charge(1_000_000, T0);
+        long wait = bucket.tryAcquire(T0);
+        assertTrue(wait > 0 && wait <= 600 * MS, "wait " + wait);
+        assertEquals(0L, bucket.tryAcquire(T0 + wait));
+    }
+}
@@ -0,0 +1,44 @@
+package com.saas.ecommerce.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IpRateLimitFilterTest {
+
+    private static IpRateLimitFilter filter(String... trustedProxies) {
+        return new IpRateLimitFilter(null, true, List.of(trustedProxies));
+    }
+
+    @Test
+    void withoutTheHeaderThePeerIsTheClient() {
+        assertEquals("10.0.0.1", filter().clientIp("10.0.0.1", null));
+        assertEquals("10.0.0.1", filter().clientIp("10.0.0.1", " , "));
+    }
+
+    @Test
+    void rightmostHopIsTakenWhenNoFurtherProxyIsTrusted() {
+        assertEquals("203.0.113.7", filter().clientIp("10.0.0.1", "198.51.100.1, 203.0.113.7"));
+    }
+
+    @Test
+    void clientWrittenEntriesCannotChooseTheBucket() {
+        var f = filter("192.0.2.0/24");
+        assertEquals("203.0.113.7", f.clientIp("10.0.0.1", "1.2.3.4, 203.0.113.7, 192.0.2.10"));
+        assertEquals("203.0.113.7", f.clientIp("10.0.0.1", "5.6.7.8, 203.0.113.7, 192.0.2.10"));
+    }
+
+    @Test
+    void trustedProxiesAreSkippedFromTheRight() {
+        var f = filter("192.0.2.0/24", "2001:db8::/32", "198.51.100.9");
+        assertEquals("203.0.113.7", f.clientIp("10.0.0.1", "203.0.113.7,198.51.100.9, 2001:db8::1 ,192.0.2.3"));
+        assertEquals("10.0.0.1", f.clientIp("10.0.0.1", "192.0.2.3, 198.51.100.9"));
+    }
+
+    @Test
+    void nonAddressHopsAreNeverTrusted() {
+        assertEquals("unknown", filter("192.0.2.0/24").clientIp("10.0.0.1", "1.2.3.4, unknown, 192.0.2.3"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.saas.ecommerce.search;
+
+import com.saas.ecommerce.model.dto.UserSummary;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TenantUserIndexTest {
+
+    private static UserSummary user(long id, String name, String email, String phone) {
+        return new UserSummary(id, 7L, name, email, phone, null, null, "USER", true, null);
+    }
+
+    private static List<Long> ids(List<UserSummary> hits) {
+        return hits.stream().map(UserSummary::id).toList();
+    }
+
+    private static TenantUserIndex index() {
+        var index = new TenantUserIndex();
+        index.add(user(1, "Jane Doe", "jdoe2024@example.com", "+1 (555) 123-4567"));
+        index.add(user(2, "John Smith", "jsmith@example.com", "555-987-6543"));
+        index.add(user(3, "Ana Lopez", "ana@corp.io", null));
+        index.compact();
+        return index;
+    }
+
+    @Test
+    void addIsIdempotentAndRemoveHidesTheUser() {
+        var index = index();
+        index.add(user(1, "Jane Doe", "jdoe2024@example.com", null));
+        assertEquals(3, index.size());
+        assertEquals(List.of(1L), ids(index.search("jane", 10)));
+
+        index.remove(1);
+        index.remove(1); // already gone: no-op
+        assertEquals(2, index.size());
+        assertEquals(List.of(), index.search("jane", 10));
+        assertEquals(List.of(), index.search("ja", 10));
+    }
+
+    @Test
+    void shortQueriesMatchTermPrefixesOnly() {
+        var index = index();
+        assertEquals(List.of(3L), ids(index.search("an", 10)));       // "ana", not "jane"
+        assertEquals(List.of(2L), ids(index.search("Sm", 10)));       // second name word
+        assertEquals(List.of(), ids(index.search("oe", 10)));         // inside a word
+    }
+
+    @Test
+    void longerQueriesMatchSubstringsOfAnyField() {
+        var index = index();
+        assertEquals(List.of(1L), ids(index.search("doe20", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("example", 10)));
+        assertEquals(List.of(3L), ids(index.search("CORP.IO", 10)));
+        assertEquals(List.of(), index.search("xyz", 10));
+        assertEquals(List.of(), index.search("   ", 10));
+    }
+
+    @Test
+    void numericQueriesMatchEmailsNamesAndPhoneDigits() {
+        var index = index();
+        index.add(user(4, "Unit 2024", "unit@corp.io", null));
+        assertEquals(List.of(1L, 4L), ids(index.search("2024", 10)));
+        assertEquals(List.of(1L), ids(index.search("(555) 123", 10)));
+        assertEquals(List.of(2L), ids(index.search("987.6543", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.search("555", 10)));
+    }
+
+    @Test
+    void resultsStopAtTheLimit() {
+        var index = index();
+        assertEquals(1, index.search("example", 1).size());
+        assertEquals(1, index.search("555 ", 1).size());
+    }
+
+    @Test
+    void usersAddedAfterCompactionAreSearchable() {
+        var index = index();
+        index.add(user(5, "Zed Quinn", "zq@example.com", "444"));
+        assertEquals(List.of(5L), ids(index.search("ze", 10)));
+        assertEquals(List.of(5L), ids(index.search("quinn", 10)));
+        assertEquals(List.of(5L), ids(index.search("44", 10)));
+    }
+}
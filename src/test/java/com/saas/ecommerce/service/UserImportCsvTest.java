@@ -0,0 +1,73 @@
+package com.saas.ecommerce.service;
+
+import com.saas.ecommerce.model.dto.UserDto;
+import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportCsvTest {
+
+    private static List<UserDto> parse(String csv) throws IOException {
+        var source = new UserImportService.CsvRowSource(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        List<UserDto> rows = new ArrayList<>();
+        for (UserDto row; (row = source.next()) != null; ) rows.add(row);
+        return rows;
+    }
+
+    @Test
+    void headerNamesColumnsInAnyOrderAndCase() throws IOException {
+        List<UserDto> rows = parse("Email,NAME,password,extra\r\na@x.io,Ann,Secret#1,ignored\r\n");
+        assertEquals(1, rows.size());
+        UserDto row = rows.get(0);
+        assertEquals("a@x.io", row.email());
+        assertEquals("Ann", row.name());
+        assertEquals("Secret#1", row.password());
+        assertNull(row.phoneNumber());
+    }
+
+    @Test
+    void quotedCellsKeepCommasNewlinesAndEscapedQuotes() throws IOException {
+        List<UserDto> rows = parse("name,email\n"
+                + "\"Doe, Jane\",jd@x.io\n"
+                + "\"Line one\nline two\",ml@x.io\n"
+                + "\"Say \"\"hi\"\"\",q@x.io\n");
+        assertEquals(List.of("Doe, Jane", "Line one\nline two", "Say \"hi\""),
+                rows.stream().map(UserDto::name).toList());
+        assertEquals(List.of("jd@x.io", "ml@x.io", "q@x.io"), rows.stream().map(UserDto::email).toList());
+    }
+
+    @Test
+    void emptyQuotedCellAndQuoteInsideUnquotedCell() throws IOException {
+        List<UserDto> rows = parse("name,email\n\"\",a@x.io\nO\"Brien,b@x.io\n");
+        assertEquals("", rows.get(0).name());
+        assertEquals("O\"Brien", rows.get(1).name());
+    }
+
+    @Test
+    void blankLinesAndMissingTrailingNewlineAreTolerated() throws IOException {
+        List<UserDto> rows = parse("name,email\n\nAnn,a@x.io\n\r\nBob,b@x.io");
+        assertEquals(List.of("a@x.io", "b@x.io"), rows.stream().map(UserDto::email).toList());
+    }
+
+    @Test
+    void shortRowsLeaveMissingCellsNull() throws IOException {
+        List<UserDto> rows = parse("name,email,roles\nAnn\n");
+        assertEquals("Ann", rows.get(0).name());
+        assertNull(rows.get(0).email());
+        assertNull(rows.get(0).roles());
+    }
+
+    @Test
+    void missingHeaderIsABadRequest() {
+        var e = assertThrows(CustomBusinessException.class, () -> parse(""));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getHttpStatus());
+    }
+}
@@ -0,0 +1,175 @@
+package com.saas.ecommerce.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLongLongMapTest {
+
+    private static final long MISSING = -1L;
+
+    @Test
+    void putGetOverwriteAndRemove() {
+        var map = new ConcurrentLongLongMap();
+        map.put(42, 1);
+        map.put(42, 2);
+        assertEquals(2, map.get(42, MISSING));
+        assertEquals(1, map.size());
+        map.remove(42);
+        assertEquals(MISSING, map.get(42, MISSING));
+        assertEquals(0, map.size());
+        map.remove(42); // absent: no-op
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void keyZeroIsRejected() {
+        var map = new ConcurrentLongLongMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.get(0, MISSING));
+    }
+
+    @Test
+    void putIfGreaterOnlyMovesForward() {
+        var map = new ConcurrentLongLongMap();
+        map.putIfGreater(7, 10);
+        map.putIfGreater(7, 5);
+        assertEquals(10, map.get(7, MISSING));
+        map.putIfGreater(7, 11);
+        assertEquals(11, map.get(7, MISSING));
+        map.put(7, 3); // plain put still overwrites
+        assertEquals(3, map.get(7, MISSING));
+    }
+
+    /** One section of eight buckets: most keys share probe chains, so removes exercise the backward shift. */
+    @Test
+    void removeInsideCollisionChainsKeepsEveryOtherKeyReachable() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            var map = new ConcurrentLongLongMap(4, 1);
+            Map<Long, Long> expected = new HashMap<>();
+            for (int i = 0; i < 5; i++) {
+                long key = 1 + random.nextInt(64);
+                map.put(key, key * 10);
+                expected.put(key, key * 10);
+            }
+            List<Long> keys = new ArrayList<>(expected.keySet());
+            for (Long key : keys) {
+                if (random.nextBoolean()) {
+                    map.remove(key);
+                    expected.remove(key);
+                }
+                assertMatches(expected, map);
+            }
+        }
+    }
+
+    @Test
+    void rehashAcrossTheLoadFactorKeepsEntries() {
+        var map = new ConcurrentLongLongMap(8, 1);
+        Map<Long, Long> expected = new HashMap<>();
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, -key);
+            expected.put(key, -key);
+        }
+        assertMatches(expected, map);
+        for (long key = 1; key <= 10_000; key += 3) {
+            map.remove(key);
+            expected.remove(key);
+        }
+        assertMatches(expected, map);
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(MISSING, map.get(2, MISSING));
+    }
+
+    @Test
+    void randomOperationsMatchAHashMap() {
+        Random random = new Random(7);
+        var map = new ConcurrentLongLongMap(16, 4);
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(2_000);
+            switch (random.nextInt(3)) {
+                case 0 -> { map.put(key, i); expected.put(key, (long) i); }
+                case 1 -> { map.remove(key); expected.remove(key); }
+                default -> { map.putIfGreater(key, i); expected.merge(key, (long) i, Math::max); }
+            }
+        }
+        assertMatches(expected, map);
+    }
+
+    /** Writers own disjoint key ranges and only raise values, so a reader may never see a value go backwards. */
+    @Test
+    void concurrentReadersNeverSeeTornOrRegressingValues() throws Exception {
+        var map = new ConcurrentLongLongMap(16, 4);
+        int writers = 4;
+        int keysPerWriter = 2_000;
+        int rounds = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                long base = 1 + (long) w * keysPerWriter;
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (long v = 1; v <= rounds; v++) {
+                        for (long k = base; k < base + keysPerWriter; k++) {
+                            map.putIfGreater(k, k * 1_000 + v);
+                            if (v == rounds / 2 && k % 5 == 0) map.remove(k); // shifts chains under readers
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 2; r++) {
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    long[] last = new long[writers * keysPerWriter + 1];
+                    for (int pass = 0; pass < 20; pass++) {
+                        for (int k = 1; k < last.length; k++) {
+                            long v = map.get(k, MISSING);
+                            if (v == MISSING) continue; // not yet written, or removed mid-run
+                            assertEquals(k, v / 1_000, "value belongs to another key");
+                            long round = v % 1_000;
+                            assertTrue(round >= 1 && round <= rounds);
+                            if (k % 5 != 0) {
+                                assertTrue(v >= last[k], "value went backwards");
+                                last[k] = v;
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) task.get(60, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        for (long k = 1; k <= (long) writers * keysPerWriter; k++) {
+            assertEquals(k * 1_000 + rounds, map.get(k, MISSING));
+        }
+        assertEquals(writers * keysPerWriter, map.size());
+    }
+
+    private static void assertMatches(Map<Long, Long> expected, ConcurrentLongLongMap map) {
+        assertEquals(expected.size(), map.size());
+        expected.forEach((k, v) -> assertEquals(v, map.get(k, MISSING), "key " + k));
+        for (long k = 1; k <= 64; k++) {
+            if (!expected.containsKey(k)) assertEquals(MISSING, map.get(k, MISSING), "stale key " + k);
+        }
+    }
+}
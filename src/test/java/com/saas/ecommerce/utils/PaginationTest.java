@@ -0,0 +1,67 @@
+package com.saas.ecommerce.utils;
+
+import com.saas.ecommerce.utils.globalExceptionHandller.CustomBusinessException;
+import com.saas.ecommerce.utils.globalExceptionHandller.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginationTest {
+
+    private final Pagination pagination = new Pagination(50, 500);
+
+    private void assertInvalid(String listing, String cursor, long... start) {
+        var e = assertThrows(CustomBusinessException.class, () -> pagination.decode(listing, cursor, start));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getHttpStatus());
+        assertEquals(ErrorCode.INVALID_CURSOR.getCode(), e.getErrorCode());
+    }
+
+    private static String b64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void pageSizeDefaultsAndCaps() {
+        assertEquals(50, pagination.pageSize(null));
+        assertEquals(50, pagination.pageSize(0));
+        assertEquals(20, pagination.pageSize(20));
+        assertEquals(500, pagination.pageSize(10_000));
+        assertEquals(21, pagination.fetchLimit(20).max());
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        String cursor = pagination.encode("users", 1_700_000_000_000L, 42L);
+        assertArrayEquals(new long[]{1_700_000_000_000L, 42L}, pagination.decode("users", cursor, 0L, 0L));
+        assertArrayEquals(new long[]{-5L}, pagination.decode("clients", pagination.encode("clients", -5L), 0L));
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertArrayEquals(new long[]{0L, 0L}, pagination.decode("users", null, 0L, 0L));
+        assertArrayEquals(new long[]{7L}, pagination.decode("users", " ", 7L));
+    }
+
+    @Test
+    void cursorFromAnotherListingIsRejected() {
+        assertInvalid("users", pagination.encode("clients", 42L), 0L);
+    }
+
+    @Test
+    void cursorWithTheWrongNumberOfKeysIsRejected() {
+        assertInvalid("users", pagination.encode("users", 1L, 2L), 0L);
+        assertInvalid("users", pagination.encode("users", 1L), 0L, 0L);
+    }
+
+    @Test
+    void garbageCursorsAreRejected() {
+        assertInvalid("users", "not base64!", 0L);
+        assertInvalid("users", b64("users:abc"), 0L);
+        assertInvalid("users", b64("users:"), 0L);
+        assertInvalid("users", b64("users"), 0L);
+    }
+}